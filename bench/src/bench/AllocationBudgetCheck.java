@@ -0,0 +1,146 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+
+package bench;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+import bot.BotParser;
+import bot.BotStarter;
+import bot.SearchRandom;
+import engine.GameMap;
+import engine.LocalEngine;
+import metrics.Histogram;
+import metrics.Metrics;
+
+/**
+ * Replays games in replay mode (see SearchRandom) and fails if the bot allocated
+ * more than a budget in any round, so a change that makes the searches allocate
+ * far more shows up before it shows up as GC pauses and timeouts.
+ *
+ * The games are transcripts of what the engine sent the bot, one command per
+ * line the way the bot reads them from System.in, or, if none are given, games
+ * of BotStarter against itself on LocalEngine. A round's allocation is what
+ * BotStarter records in round.allocated.bytes: its deployment and attacks,
+ * including the attack searches on the search pool.
+ *
+ * Run with: java -Dbot.metrics=true -cp <classes> bench.AllocationBudgetCheck
+ * 		[--budget bytes] [--seed N] [--games N] [--regions N] [--rounds N] [transcript ...]
+ * Adding -Dbot.debug=true prints each round's allocation as it is played.
+ */
+public class AllocationBudgetCheck {
+
+	public static void main(String[] args) throws IOException
+	{
+		long budget = 256L << 20, seed = 7; //self-play rounds allocate up to about 150 MB
+		int games = 4, regions = 42, rounds = 30;
+		ArrayList<String> transcripts = new ArrayList<String>();
+		for(int i = 0; i < args.length; i++)
+		{
+			if(!args[i].startsWith("--"))
+				transcripts.add(args[i]);
+			else if(i + 1 == args.length)
+				System.err.println("Missing value for " + args[i]);
+			else if(args[i].equals("--budget"))
+				budget = Long.parseLong(args[++i]);
+			else if(args[i].equals("--seed"))
+				seed = Long.parseLong(args[++i]);
+			else if(args[i].equals("--games"))
+				games = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--regions"))
+				regions = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--rounds"))
+				rounds = Integer.parseInt(args[++i]);
+			else
+				System.err.println("Unknown option " + args[i]);
+		}
+		if(!Metrics.ENABLED)
+			fail("allocations are only counted with -Dbot.metrics=true");
+		SearchRandom.setReplaySeed(seed);
+		Histogram perRound = Metrics.histogram("round.allocated.bytes");
+
+		boolean over = false;
+		for(String transcript : transcripts)
+		{
+			Metrics.reset();
+			SearchRandom.seedThread(seed);
+			InputStream in = new FileInputStream(transcript);
+			try {
+				new BotParser(new BotStarter(), in, new NullOutputStream()).run();
+			}
+			finally {
+				in.close();
+			}
+			over |= report(transcript, perRound, budget);
+		}
+		if(transcripts.isEmpty())
+		{
+			GameMap map = GameMap.random(regions, new Random(seed));
+			for(int game = 0; game < games; game++)
+			{
+				Metrics.reset();
+				SearchRandom.seedThread(seed + game);
+				LocalEngine engine = new LocalEngine(map, new BotStarter(), new BotStarter(), seed + game);
+				engine.setMaxRounds(rounds);
+				engine.setTimebank(500, 50);
+				engine.setChargeTime(false);
+				engine.play();
+				over |= report("self-play " + regions + " regions, seed " + (seed + game), perRound, budget);
+			}
+		}
+		if(over)
+			fail("a round allocated more than the budget of " + budget + " bytes");
+		System.out.printf("every round allocated less than the budget of %d bytes%n", budget);
+	}
+
+	/**
+	 * @return true if a round of the game went over the budget
+	 */
+	private static boolean report(String game, Histogram perRound, long budget)
+	{
+		boolean over = perRound.getMax() > budget;
+		System.out.printf("%s: %d rounds recorded, per round p50 %d, p99 %d, max %d bytes%s%n", game, perRound.getCount(),
+				perRound.getPercentile(50), perRound.getPercentile(99), perRound.getMax(), over ? "  OVER BUDGET" : "");
+		return over;
+	}
+
+	private static void fail(String message)
+	{
+		System.err.println("FAILED: " + message);
+		System.exit(1);
+	}
+
+	/**
+	 * Throws the bot's moves away
+	 */
+	private static class NullOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b)
+		{
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len)
+		{
+		}
+	}
+}
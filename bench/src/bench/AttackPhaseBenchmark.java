@@ -0,0 +1,88 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bench;
+
+import bot.BotStarter;
+import bot.BotState;
+
+/**
+ * Times getAttackTransferMoves as the number of our border regions grows. Each
+ * border region of ours faces two enemy regions, so every one of them runs an
+ * attack search.
+ *
+ * Run with: java -cp <classes> [-Dbot.searchThreads=N] bench.AttackPhaseBenchmark
+ */
+public class AttackPhaseBenchmark {
+
+	private static final long TIME_OUT = 2000; //timebank given with the request
+
+	public static void main(String[] args)
+	{
+		int[] frontiers = {1, 2, 4, 8, 16, 32};
+		System.out.println("search threads: " + Integer.getInteger("bot.searchThreads", Runtime.getRuntime().availableProcessors()));
+		System.out.println("frontier\twall ms\tsequential 300 ms/region");
+		for(int round = 0; round < 2; round++) //first round is warmup
+		{
+			for(int frontier : frontiers)
+			{
+				BotState state = frontierState(frontier);
+				BotStarter bot = new BotStarter();
+				long start = System.nanoTime();
+				bot.getAttackTransferMoves(state, TIME_OUT);
+				long wall = (System.nanoTime() - start) / 1000000;
+				if(round == 1)
+					System.out.printf("%d\t%d\t%d%n", frontier, wall, frontier * 300);
+			}
+		}
+	}
+
+	/**
+	 * @return a state with a row of our regions facing a row of the opponent's,
+	 * 		   each of ours adjacent to the two enemy regions across from it
+	 */
+	static BotState frontierState(int frontier)
+	{
+		BotState state = new BotState();
+		state.updateSettings("your_bot", new String[] {"settings", "your_bot", "player1"});
+		state.updateSettings("opponent_bot", new String[] {"settings", "opponent_bot", "player2"});
+		state.updateSettings("timebank", new String[] {"settings", "timebank", "10000"});
+		state.updateSettings("time_per_move", new String[] {"settings", "time_per_move", "500"});
+		state.updateSettings("max_rounds", new String[] {"settings", "max_rounds", "45"});
+
+		StringBuilder superRegions = new StringBuilder("setup_map super_regions");
+		StringBuilder regions = new StringBuilder("setup_map regions");
+		StringBuilder neighbors = new StringBuilder("setup_map neighbors");
+		StringBuilder update = new StringBuilder("update_map");
+		for(int i = 0; i < frontier; i++)
+		{
+			int ours = 2 * i + 1, theirs = 2 * i + 2;
+			superRegions.append(' ').append(i + 1).append(' ').append(3);
+			regions.append(' ').append(ours).append(' ').append(i + 1);
+			regions.append(' ').append(theirs).append(' ').append(i + 1);
+			neighbors.append(' ').append(ours).append(' ').append(theirs);
+			if(i + 1 < frontier)
+				neighbors.append(',').append(theirs + 2).append(',').append(ours + 2);
+			update.append(' ').append(ours).append(" player1 12");
+			update.append(' ').append(theirs).append(" player2 3");
+		}
+		state.setupMap(superRegions.toString().split(" "));
+		state.setupMap(regions.toString().split(" "));
+		state.setupMap(neighbors.toString().split(" "));
+		state.updateSettings("starting_armies", new String[] {"settings", "starting_armies", "5"});
+		state.updateMap(update.toString().split(" "));
+		return state;
+	}
+}
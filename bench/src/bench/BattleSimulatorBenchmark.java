@@ -0,0 +1,143 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bench;
+
+import java.util.Random;
+
+import bot.SearchRandom;
+import map.BattleOutcome;
+import map.BattleSimulator;
+
+/**
+ * Checks BattleSimulator against the exact odds of the engine's rules, and
+ * measures how many rollouts per second it plays out compared to rolling every
+ * army the way the engine does.
+ *
+ * The exact odds come from summing the rules over every pair of roll counts,
+ * weighted by their binomial probabilities. The sampled capture chance of each
+ * attack must fall within five standard errors of it.
+ *
+ * Run with: java -cp <classes> bench.BattleSimulatorBenchmark
+ */
+public class BattleSimulatorBenchmark {
+
+	private static final int CHECK_ROLLOUTS = 200000;
+	private static final int TIMED_ROLLOUTS = 4000000;
+
+	/* attack sets to time: armies attacking and defending, one pair per attack */
+	private static final int[][][] SETS = {
+		{{5}, {3}},
+		{{10, 7, 3, 20}, {6, 4, 2, 12}},
+		{{200}, {150}},
+	};
+
+	public static void main(String[] args)
+	{
+		BattleSimulator battles = new BattleSimulator(new SearchRandom(42));
+		BattleOutcome outcome = new BattleOutcome();
+
+		int[] attackers = new int[1], defenders = new int[1];
+		double worst = 0;
+		for(int a = 1; a <= 30; a++)
+			for(int d = 1; d <= 20; d++)
+			{
+				attackers[0] = a;
+				defenders[0] = d;
+				battles.simulate(attackers, defenders, 1, CHECK_ROLLOUTS, outcome);
+				double exact = exactCaptureProbability(a, d);
+				double error = Math.sqrt(exact * (1 - exact) / CHECK_ROLLOUTS);
+				double sampled = outcome.captureProbability(0);
+				if(Math.abs(sampled - exact) > 5 * error + 1e-12)
+					fail("a=" + a + " d=" + d + " sampled " + sampled + ", exact " + exact);
+				if(error > 0)
+					worst = Math.max(worst, Math.abs(sampled - exact) / error);
+				if(outcome.attackerSurvivorProbability(0, 0) > 0 && exact == 1)
+					fail("a=" + a + " d=" + d + " lost every attacker in a sure capture");
+			}
+		System.out.printf("capture odds match the exact rules for 1-30 vs 1-20 (worst %.2f standard errors)%n", worst);
+
+		for(int[][] set : SETS)
+		{
+			int count = set[0].length;
+			battles.simulate(set[0], set[1], count, TIMED_ROLLOUTS, outcome); //warmup, and grows the buffers
+			long allocated = ProtocolReaderBenchmark.allocatedBytes();
+			long start = System.nanoTime();
+			battles.simulate(set[0], set[1], count, TIMED_ROLLOUTS, outcome);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			allocated = ProtocolReaderBenchmark.allocatedBytes() - allocated;
+
+			Random rand = new SearchRandom(42);
+			long sink = 0;
+			long engineStart = System.nanoTime();
+			for(int r = 0; r < TIMED_ROLLOUTS / 10; r++)
+				for(int i = 0; i < count; i++)
+					sink += engineAttack(set[0][i], set[1][i], rand);
+			double engineSeconds = (System.nanoTime() - engineStart) / 1e9 * 10;
+
+			StringBuilder odds = new StringBuilder();
+			for(int i = 0; i < count; i++)
+				odds.append(String.format(" %dv%d:%.3f", set[0][i], set[1][i], outcome.captureProbability(i)));
+			System.out.printf("%d attack(s)%s  all taken %.3f%n", count, odds, outcome.capturedTogetherProbability(count));
+			System.out.printf("  tables %.2fM rollouts/s (%d bytes allocated), per army %.2fM rollouts/s%s%n",
+					TIMED_ROLLOUTS / seconds / 1e6, allocated, TIMED_ROLLOUTS / engineSeconds / 1e6, sink < 0 ? " " : "");
+		}
+	}
+
+	/*
+	 * One attack exactly as the engine resolves it, rolling every army
+	 * @return : the attackers lost plus a flag for a capture, so it cannot be optimized away
+	 */
+	static long engineAttack(int attackingArmies, int defendingArmies, Random rand)
+	{
+		int defendersDestroyed = 0, attackersDestroyed = 0;
+		for(int t = 1; t <= attackingArmies; t++)
+			if(rand.nextDouble() < 0.6) defendersDestroyed++;
+		for(int t = 1; t <= defendingArmies; t++)
+			if(rand.nextDouble() < 0.7) attackersDestroyed++;
+		long result = BattleSimulator.resolve(attackingArmies, defendingArmies, defendersDestroyed, attackersDestroyed);
+		return BattleSimulator.attackersLost(result) + (BattleSimulator.defendersLost(result) >= defendingArmies ? 1000 : 0);
+	}
+
+	static double exactCaptureProbability(int a, int d)
+	{
+		double[] attackRolls = binomial(a, BattleSimulator.ATTACKER_KILL_CHANCE);
+		double[] defendRolls = binomial(d, BattleSimulator.DEFENDER_KILL_CHANCE);
+		double probability = 0;
+		for(int i = 0; i <= a; i++)
+			for(int j = 0; j <= d; j++)
+				if(BattleSimulator.defendersLost(BattleSimulator.resolve(a, d, i, j)) >= d)
+					probability += attackRolls[i] * defendRolls[j];
+		return probability;
+	}
+
+	static double[] binomial(int n, double p)
+	{
+		double[] pmf = new double[n + 1];
+		double choose = 1;
+		for(int k = 0; k <= n; k++)
+		{
+			pmf[k] = choose * Math.pow(p, k) * Math.pow(1 - p, n - k);
+			choose = choose * (n - k) / (k + 1);
+		}
+		return pmf;
+	}
+
+	private static void fail(String message)
+	{
+		System.err.println("FAILED: " + message);
+		System.exit(1);
+	}
+}
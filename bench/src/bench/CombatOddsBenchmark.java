@@ -0,0 +1,157 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bench;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import bot.CombatOdds;
+
+/**
+ * Checks the CombatOdds tables against the BigDecimal computation they replaced,
+ * and times both.
+ *
+ * The old binomialcdf returned binomialDist(3,3,.6) whenever every attacker had to
+ * roll a kill, which made the odds jump to 0.784 for attacks that cannot succeed.
+ * Those cells are counted separately, everywhere else the two must agree.
+ *
+ * Run with: java -cp <classes> bench.CombatOddsBenchmark
+ */
+public class CombatOddsBenchmark {
+
+	private static final int MAX_ARMIES = 200;
+
+	public static void main(String[] args)
+	{
+		double maxError = 0;
+		int quirkCells = 0;
+		for(int a = 0; a <= MAX_ARMIES; a++)
+			for(int d = 0; d <= MAX_ARMIES; d++)
+			{
+				double expected = oldProbabilityToTake(a, d);
+				double actual = CombatOdds.probabilityToTake(a, d);
+				if(isQuirk(a, d))
+				{
+					quirkCells++;
+					if(actual != 0)
+						fail("a=" + a + " d=" + d + " should be 0, got " + actual);
+				}
+				else
+					maxError = Math.max(maxError, Math.abs(expected - actual));
+			}
+		System.out.printf("max |old - new| = %.3g over %d cells (%d all-rolls-must-kill cells now 0)%n",
+				maxError, (MAX_ARMIES + 1) * (MAX_ARMIES + 1) - quirkCells, quirkCells);
+		if(maxError > 1e-9)
+			fail("tables disagree with the old computation");
+
+		for(int d = 0; d <= MAX_ARMIES; d++)
+		{
+			for(int a = 1; a <= MAX_ARMIES; a++)
+				if(CombatOdds.probabilityToTake(a, d) < CombatOdds.probabilityToTake(a - 1, d))
+					fail("odds decrease from a=" + (a - 1) + " to a=" + a + " at d=" + d);
+			int min = CombatOdds.minAttackers(d, 0.6125);
+			int linear = 0;
+			while(CombatOdds.probabilityToTake(linear, d) <= 0.6125)
+				linear++;
+			if(min != linear)
+				fail("minAttackers(" + d + ") = " + min + ", search found " + linear);
+		}
+		System.out.println("odds are monotone in attackers, minAttackers matches a linear search");
+
+		Random rand = new Random(42);
+		int queries = 20000;
+		int[] attackers = new int[queries];
+		int[] defenders = new int[queries];
+		for(int i = 0; i < queries; i++)
+		{
+			attackers[i] = 1 + rand.nextInt(40);
+			defenders[i] = 1 + rand.nextInt(30);
+		}
+		double sink = 0;
+		long start = System.nanoTime();
+		for(int i = 0; i < queries; i++)
+			sink += oldProbabilityToTake(attackers[i], defenders[i]);
+		double oldNs = (System.nanoTime() - start) / (double) queries;
+		for(int round = 0; round < 50; round++) //warmup
+			for(int i = 0; i < queries; i++)
+				sink += CombatOdds.probabilityToTake(attackers[i], defenders[i]);
+		start = System.nanoTime();
+		for(int i = 0; i < queries; i++)
+			sink += CombatOdds.probabilityToTake(attackers[i], defenders[i]);
+		double newNs = (System.nanoTime() - start) / (double) queries;
+		System.out.printf("old %.1f ns/query, table %.1f ns/query%s%n", oldNs, newNs, sink < 0 ? " " : "");
+	}
+
+	private static boolean isQuirk(int a, int d)
+	{
+		if(d < a * .504 || d > (a * .504 + .16 * a) + 1)
+			return false;
+		return (int) ((d - .504 * a) / .16) == a;
+	}
+
+	private static void fail(String message)
+	{
+		System.err.println("FAILED: " + message);
+		System.exit(1);
+	}
+
+	/*
+	 * The computation BotStarter used before CombatOdds
+	 */
+	static double oldProbabilityToTake(double attackers, double defenders)
+	{
+		double probability = 0;
+		if(defenders < attackers * .504)
+			probability = 1;
+		else if(defenders > (attackers * .504 + .16 * attackers) + 1)
+			probability = 0;
+		else
+		{
+			int need = (int) ((defenders - .504 * attackers) / .16);
+			if(need <= attackers)
+				probability = 1 - oldBinomialcdf(need, (int) attackers, .6);
+		}
+		return probability;
+	}
+
+	static double oldBinomialcdf(int numCorrect, int numTrials, double probValue)
+	{
+		if(numCorrect == numTrials) return oldBinomialDist(3, 3, .6);
+		double total = 0;
+		for(int i = 0; i <= numCorrect; i++)
+			total += oldBinomialDist(i, numTrials, probValue);
+		return total;
+	}
+
+	static double oldBinomialDist(int numCorrect, int numTrials, double probValue)
+	{
+		BigInteger ntF = factorial(numTrials);
+		BigInteger denom = factorial(numCorrect).multiply(factorial(numTrials - numCorrect));
+		BigDecimal quotient = new BigDecimal(ntF).divide(new BigDecimal(denom), 40, RoundingMode.HALF_UP);
+		BigDecimal restBD = BigDecimal.valueOf(Math.pow(probValue, numCorrect) * Math.pow((1d - probValue), numTrials - numCorrect));
+		return quotient.multiply(restBD).doubleValue();
+	}
+
+	static BigInteger factorial(int n)
+	{
+		BigInteger res = BigInteger.ONE;
+		for(int i = n; i > 1; i--)
+			res = res.multiply(BigInteger.valueOf(i));
+		return res;
+	}
+}
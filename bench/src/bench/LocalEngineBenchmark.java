@@ -0,0 +1,145 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import bot.Bot;
+import bot.BotStarter;
+import bot.BotState;
+import bot.SearchRandom;
+import engine.GameMap;
+import engine.GameResult;
+import engine.LocalEngine;
+import map.MapTopology;
+import map.Region;
+import move.AttackTransferMove;
+import move.PlaceArmiesMove;
+
+/**
+ * Times whole games on LocalEngine. Games between two RandomBots show what the
+ * engine itself costs; a short game between two BotStarters, replayed twice
+ * with the same seeds, checks that self-play is repeatable.
+ *
+ * Run with: java -cp <classes> bench.LocalEngineBenchmark
+ */
+public class LocalEngineBenchmark {
+
+	private static final int GAMES = 200;
+
+	public static void main(String[] args)
+	{
+		for(int regions : new int[] {42, 200, 1000})
+		{
+			GameMap map = GameMap.random(regions, new Random(regions));
+			int[] wins = new int[3];
+			long rounds = 0;
+			for(int game = 0; game < GAMES / 10; game++) //warmup
+				play(map, new RandomBot(game), new RandomBot(-game), game);
+			long start = System.nanoTime();
+			for(int game = 0; game < GAMES; game++)
+			{
+				GameResult result = play(map, new RandomBot(game), new RandomBot(-game), game);
+				wins[result.getWinner()]++;
+				rounds += result.getRounds();
+			}
+			double ms = (System.nanoTime() - start) / 1e6 / GAMES;
+			System.out.printf("%d regions: %.2f ms/game, %.1f rounds/game, RandomBot results %d-%d-%d%n",
+					regions, ms, (double) rounds / GAMES, wins[1], wins[2], wins[0]);
+		}
+
+		GameMap map = GameMap.random(42, new Random(42));
+		String[] replays = new String[2];
+		for(int run = 0; run < 2; run++)
+		{
+			SearchRandom.setReplaySeed(7);
+			long start = System.nanoTime();
+			LocalEngine engine = new LocalEngine(map, new BotStarter(), new BotStarter(), 7);
+			engine.setMaxRounds(10);
+			engine.setTimebank(20, 10);
+			engine.setChargeTime(false);
+			replays[run] = engine.play().toString();
+			System.out.printf("BotStarter self-play, 10 rounds: %s in %d ms%n", replays[run], (System.nanoTime() - start) / 1000000);
+		}
+		if(!replays[0].equals(replays[1]))
+		{
+			System.err.println("FAILED: the same seeds gave different games");
+			System.exit(1);
+		}
+	}
+
+	static GameResult play(GameMap map, Bot player1, Bot player2, long seed)
+	{
+		LocalEngine engine = new LocalEngine(map, player1, player2, seed);
+		engine.setChargeTime(false);
+		return engine.play();
+	}
+
+	/**
+	 * Places everything on one random region of its own, then attacks from every
+	 * region with more than three armies into a random neighbor it does not own.
+	 */
+	static class RandomBot implements Bot {
+
+		private final Random rand;
+
+		RandomBot(long seed)
+		{
+			this.rand = new Random(seed);
+		}
+
+		@Override
+		public Region getStartingRegion(BotState state, Long timeOut)
+		{
+			ArrayList<Region> pickable = state.getPickableStartingRegions();
+			return pickable.get(rand.nextInt(pickable.size()));
+		}
+
+		@Override
+		public ArrayList<PlaceArmiesMove> getPlaceArmiesMoves(BotState state, Long timeOut)
+		{
+			ArrayList<Region> ours = new ArrayList<Region>();
+			for(Region region : state.getVisibleMap().getRegions())
+				if(region.ownedBy(MapTopology.ME))
+					ours.add(region);
+			ArrayList<PlaceArmiesMove> moves = new ArrayList<PlaceArmiesMove>();
+			Region region = ours.get(rand.nextInt(ours.size()));
+			moves.add(new PlaceArmiesMove(state.getMyPlayerName(), region, state.getStartingArmies()));
+			region.setArmies(region.getArmies() + state.getStartingArmies());
+			return moves;
+		}
+
+		@Override
+		public ArrayList<AttackTransferMove> getAttackTransferMoves(BotState state, Long timeOut)
+		{
+			ArrayList<AttackTransferMove> moves = new ArrayList<AttackTransferMove>();
+			for(Region region : state.getVisibleMap().getRegions())
+			{
+				if(!region.ownedBy(MapTopology.ME) || region.getArmies() <= 3)
+					continue;
+				ArrayList<Region> targets = new ArrayList<Region>();
+				for(Region neighbor : region.getNeighbors())
+					if(!neighbor.ownedBy(MapTopology.ME))
+						targets.add(neighbor);
+				if(!targets.isEmpty())
+					moves.add(new AttackTransferMove(state.getMyPlayerName(), region,
+							targets.get(rand.nextInt(targets.size())), region.getArmies() - 1));
+			}
+			return moves;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bench;
+
+import java.util.Random;
+
+import map.Map;
+import map.Region;
+import map.SuperRegion;
+
+/**
+ * Measures the cost of Map.getRegion as the map grows, against the linear scan
+ * it replaced. Region ids are deliberately non-contiguous.
+ *
+ * Run with: java -cp <classes> bench.MapLookupBenchmark
+ */
+public class MapLookupBenchmark {
+
+	private static final int LOOKUPS = 2000000;
+
+	public static void main(String[] args)
+	{
+		int[] sizes = {50, 200, 1000, 5000};
+		System.out.println("regions\tsetup ms\tindexed ns/lookup\tlinear ns/lookup");
+		for(int round = 0; round < 2; round++) //first round is warmup
+		{
+			for(int size : sizes)
+			{
+				long setupStart = System.nanoTime();
+				Map map = buildMap(size);
+				long setupTime = System.nanoTime() - setupStart;
+
+				int[] ids = new int[size];
+				for(int i = 0; i < size; i++)
+					ids[i] = map.getRegions().get(i).getId();
+				int[] queries = new int[LOOKUPS];
+				Random rand = new Random(42);
+				for(int i = 0; i < LOOKUPS; i++)
+					queries[i] = ids[rand.nextInt(size)];
+
+				long sink = 0;
+				long start = System.nanoTime();
+				for(int i = 0; i < LOOKUPS; i++)
+					sink += map.getRegion(queries[i]).getArmies();
+				double indexed = (System.nanoTime() - start) / (double) LOOKUPS;
+
+				int linearLookups = LOOKUPS / size; //the old scan is O(n), keep the run short
+				start = System.nanoTime();
+				for(int i = 0; i < linearLookups; i++)
+					sink += linearGetRegion(map, queries[i]).getArmies();
+				double linear = (System.nanoTime() - start) / (double) linearLookups;
+
+				if(round == 1)
+					System.out.printf("%d\t%.2f\t%.2f\t%.2f%s%n", size, setupTime / 1e6, indexed, linear, sink == -1 ? " " : "");
+			}
+		}
+	}
+
+	/**
+	 * @return a Map with the given number of regions, ten per SuperRegion, with ids spaced apart
+	 */
+	static Map buildMap(int size)
+	{
+		Map map = new Map();
+		for(int s = 0; s <= size / 10; s++)
+			map.add(new SuperRegion(s * 2 + 1, 1 + s % 5));
+		for(int i = 0; i < size; i++)
+			map.add(new Region(i * 3 + 7, map.getSuperRegion((i / 10) * 2 + 1), "neutral", 2));
+		return map;
+	}
+
+	/**
+	 * The lookup Map.getRegion used to perform
+	 */
+	static Region linearGetRegion(Map map, int id)
+	{
+		for(Region region : map.getRegions())
+			if(region.getId() == id)
+				return region;
+		return null;
+	}
+}
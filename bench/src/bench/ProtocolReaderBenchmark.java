@@ -0,0 +1,162 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bench;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+import java.util.Scanner;
+
+import bot.BotParser;
+import bot.BotStarter;
+import bot.BotState;
+
+/**
+ * Compares reading a transcript with ProtocolReader (through BotParser) against
+ * the old Scanner and String.split parsing. The transcript is a large map
+ * followed by many update_map and opponent_moves lines and has no go lines, so
+ * only parsing and BotState updates are timed.
+ *
+ * Run with: java -cp <classes> bench.ProtocolReaderBenchmark [regions] [rounds]
+ */
+public class ProtocolReaderBenchmark {
+
+	public static void main(String[] args)
+	{
+		int regions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		byte[] transcript = transcript(regions, rounds, new Random(1));
+		System.out.printf("transcript: %d regions, %d rounds, %d bytes%n", regions, rounds, transcript.length);
+
+		for(int i = 0; i < 3; i++) //warmup
+		{
+			readWithScanner(transcript);
+			readWithParser(transcript);
+		}
+		int runs = 10;
+		long scannerBytes = allocatedBytes(), start = System.nanoTime();
+		for(int i = 0; i < runs; i++)
+			readWithScanner(transcript);
+		long scannerNanos = (System.nanoTime() - start) / runs;
+		scannerBytes = (allocatedBytes() - scannerBytes) / runs;
+
+		long parserBytes = allocatedBytes();
+		start = System.nanoTime();
+		for(int i = 0; i < runs; i++)
+			readWithParser(transcript);
+		long parserNanos = (System.nanoTime() - start) / runs;
+		parserBytes = (allocatedBytes() - parserBytes) / runs;
+
+		System.out.printf("Scanner + split: %8.2f ms, %10d bytes allocated%n", scannerNanos / 1e6, scannerBytes);
+		System.out.printf("ProtocolReader:  %8.2f ms, %10d bytes allocated%n", parserNanos / 1e6, parserBytes);
+	}
+
+	/**
+	 * The parsing BotParser did before ProtocolReader
+	 */
+	static BotState readWithScanner(byte[] transcript)
+	{
+		BotState state = new BotState();
+		Scanner scan = new Scanner(new ByteArrayInputStream(transcript));
+		while(scan.hasNextLine())
+		{
+			String line = scan.nextLine().trim();
+			if(line.length() == 0) { continue; }
+			String[] parts = line.split(" ");
+			if(parts[0].equals("settings"))
+				state.updateSettings(parts[1], parts);
+			else if(parts[0].equals("setup_map"))
+				state.setupMap(parts);
+			else if(parts[0].equals("update_map"))
+				state.updateMap(parts);
+			else if(parts[0].equals("opponent_moves"))
+				state.readOpponentMoves(parts);
+		}
+		return state;
+	}
+
+	static void readWithParser(byte[] transcript)
+	{
+		new BotParser(new BotStarter(), new ByteArrayInputStream(transcript), System.out).run();
+	}
+
+	/**
+	 * @return bytes allocated by this thread so far, or 0 if the JVM cannot tell
+	 */
+	static long allocatedBytes()
+	{
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+
+	/**
+	 * @return a transcript for a map of the given number of regions laid out in a
+	 * 		   grid, ten to a SuperRegion, with every region visible every round
+	 */
+	static byte[] transcript(int regions, int rounds, Random rand)
+	{
+		int width = (int) Math.ceil(Math.sqrt(regions));
+		StringBuilder out = new StringBuilder();
+		out.append("settings timebank 10000\nsettings time_per_move 500\nsettings max_rounds ").append(rounds).append('\n');
+		out.append("settings your_bot player1\nsettings opponent_bot player2\n");
+
+		out.append("setup_map super_regions");
+		for(int s = 1; s <= (regions + 9) / 10; s++)
+			out.append(' ').append(s).append(' ').append(1 + rand.nextInt(6));
+		out.append("\nsetup_map regions");
+		for(int r = 1; r <= regions; r++)
+			out.append(' ').append(r).append(' ').append((r + 9) / 10);
+		out.append("\nsetup_map neighbors");
+		for(int r = 1; r <= regions; r++)
+		{
+			StringBuilder list = new StringBuilder();
+			if(r % width != 0 && r + 1 <= regions) //right
+				list.append(r + 1);
+			if(r + width <= regions) //below
+				list.append(list.length() > 0 ? "," : "").append(r + width);
+			if(list.length() > 0)
+				out.append(' ').append(r).append(' ').append(list);
+		}
+		out.append('\n');
+
+		String[] owners = {"player1", "player2", "neutral"};
+		for(int round = 0; round < rounds; round++)
+		{
+			out.append("settings starting_armies 5\nupdate_map");
+			for(int r = 1; r <= regions; r++)
+				out.append(' ').append(r).append(' ').append(owners[rand.nextInt(3)]).append(' ').append(1 + rand.nextInt(40));
+			out.append("\nopponent_moves");
+			for(int m = 0; m < 20; m++)
+			{
+				int from = 1 + rand.nextInt(regions);
+				if(m % 2 == 0)
+					out.append(" player2 place_armies ").append(from).append(' ').append(1 + rand.nextInt(5));
+				else
+					out.append(" player2 attack/transfer ").append(from).append(' ').append(1 + rand.nextInt(regions)).append(' ').append(1 + rand.nextInt(20));
+			}
+			out.append('\n');
+		}
+		try {
+			return out.toString().getBytes("US-ASCII");
+		}
+		catch(java.io.UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
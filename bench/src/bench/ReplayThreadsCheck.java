@@ -0,0 +1,193 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+
+package bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+import bot.BotStarter;
+import bot.BotState;
+import bot.SearchRandom;
+import engine.GameMap;
+import engine.GameResult;
+import engine.LocalEngine;
+import map.Region;
+import move.AttackTransferMove;
+import move.PlaceArmiesMove;
+
+/**
+ * Checks that a replay does not depend on how many threads the attack searches
+ * get: plays the same seeded self-play games in one JVM per value of
+ * -Dbot.searchThreads, which is read once when BotStarter loads, and fails
+ * unless every JVM made the same moves.
+ *
+ * Each JVM prints one line per game with a digest of every move both bots
+ * made, in order; the check compares those lines.
+ *
+ * Run with: java -cp <classes> bench.ReplayThreadsCheck
+ * 		[--search-threads 1,4] [--seed N] [--games N] [--regions N] [--rounds N]
+ */
+public class ReplayThreadsCheck {
+
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		String searchThreads = "1,4";
+		long seed = 7;
+		int games = 2, regions = 200, rounds = 40; //small maps seldom have two attack searches to split a turn between
+		boolean play = false;
+		for(int i = 0; i < args.length; i++)
+		{
+			if(args[i].equals("--play"))
+				play = true;
+			else if(i + 1 == args.length)
+				System.err.println("Missing value for " + args[i]);
+			else if(args[i].equals("--search-threads"))
+				searchThreads = args[++i];
+			else if(args[i].equals("--seed"))
+				seed = Long.parseLong(args[++i]);
+			else if(args[i].equals("--games"))
+				games = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--regions"))
+				regions = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--rounds"))
+				rounds = Integer.parseInt(args[++i]);
+			else
+				System.err.println("Unknown option " + args[i]);
+		}
+		if(play)
+		{
+			play(seed, games, regions, rounds);
+			return;
+		}
+
+		String expected = null, first = null;
+		for(String threads : searchThreads.split(","))
+		{
+			String moves = run(threads.trim(), seed, games, regions, rounds);
+			System.out.printf("bot.searchThreads=%s%n%s", threads.trim(), moves);
+			if(expected == null)
+			{
+				expected = moves;
+				first = threads.trim();
+			}
+			else if(!moves.equals(expected))
+				fail("the moves with bot.searchThreads=" + threads.trim() + " differ from those with " + first);
+		}
+		System.out.println("every search thread count made the same moves");
+	}
+
+	/**
+	 * Plays the games in a new JVM with the given number of search threads
+	 * @return what the JVM printed
+	 */
+	private static String run(String threads, long seed, int games, int regions, int rounds) throws IOException, InterruptedException
+	{
+		ArrayList<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-Dbot.searchThreads=" + threads);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(ReplayThreadsCheck.class.getName());
+		command.add("--play");
+		command.add("--seed");
+		command.add(String.valueOf(seed));
+		command.add("--games");
+		command.add(String.valueOf(games));
+		command.add("--regions");
+		command.add(String.valueOf(regions));
+		command.add("--rounds");
+		command.add(String.valueOf(rounds));
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		InputStream in = process.getInputStream();
+		byte[] buffer = new byte[4096];
+		for(int read = in.read(buffer); read >= 0; read = in.read(buffer))
+			out.write(buffer, 0, read);
+		if(process.waitFor() != 0)
+			fail("the games with bot.searchThreads=" + threads + " did not finish");
+		return out.toString("US-ASCII");
+	}
+
+	/**
+	 * Plays the games in this JVM and prints a digest of each one's moves
+	 */
+	private static void play(long seed, int games, int regions, int rounds)
+	{
+		SearchRandom.setReplaySeed(seed);
+		GameMap map = GameMap.random(regions, new Random(seed));
+		for(int game = 0; game < games; game++)
+		{
+			SearchRandom.seedThread(seed + game);
+			RecordingBot player1 = new RecordingBot(), player2 = new RecordingBot();
+			LocalEngine engine = new LocalEngine(map, player1, player2, seed + game);
+			engine.setMaxRounds(rounds);
+			engine.setTimebank(500, 50);
+			engine.setChargeTime(false);
+			GameResult result = engine.play();
+			System.out.printf("seed %d: %d rounds, moves %016x %016x%n", seed + game, result.getRounds(), player1.digest, player2.digest);
+		}
+	}
+
+	private static void fail(String message)
+	{
+		System.err.println("FAILED: " + message);
+		System.exit(1);
+	}
+
+	/**
+	 * BotStarter, folding every move it makes into a digest
+	 */
+	private static class RecordingBot extends BotStarter {
+
+		long digest;
+
+		private void record(String move)
+		{
+			digest = (digest + move.hashCode()) * 0x9E3779B97F4A7C15L;
+		}
+
+		@Override
+		public Region getStartingRegion(BotState state, Long timeOut)
+		{
+			Region region = super.getStartingRegion(state, timeOut);
+			record(region == null ? "none" : String.valueOf(region.getId()));
+			return region;
+		}
+
+		@Override
+		public ArrayList<PlaceArmiesMove> getPlaceArmiesMoves(BotState state, Long timeOut)
+		{
+			ArrayList<PlaceArmiesMove> moves = super.getPlaceArmiesMoves(state, timeOut);
+			for(PlaceArmiesMove move : moves)
+				record(move.getString());
+			return moves;
+		}
+
+		@Override
+		public ArrayList<AttackTransferMove> getAttackTransferMoves(BotState state, Long timeOut)
+		{
+			ArrayList<AttackTransferMove> moves = super.getAttackTransferMoves(state, timeOut);
+			for(AttackTransferMove move : moves)
+				record(move.getString());
+			return moves;
+		}
+	}
+}
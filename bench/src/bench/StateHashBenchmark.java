@@ -0,0 +1,155 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+
+package bench;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Random;
+
+import map.Map;
+import map.Region;
+
+/**
+ * Checks that Map.getStateHash and Map.getExactStateHash stay equal to the
+ * hashes worked out from scratch through random changes, rollbacks, visibility
+ * changes and copies, that rolling back to a mark gives back the hashes the map
+ * had there, even past inner marks that were committed, and that only the exact
+ * hash tells apart army counts in one bucket. Then times a change to a region, which
+ * now updates the hash, against working the hash out from scratch.
+ *
+ * Run with: java -cp <classes> bench.StateHashBenchmark
+ */
+public class StateHashBenchmark {
+
+	private static final int STEPS = 200000;
+	private static final int UPDATES = 5000000;
+	private static final String[] PLAYERS = {"player1", "player2", "neutral"};
+
+	public static void main(String[] args)
+	{
+		check(MapLookupBenchmark.buildMap(200), new Random(42));
+		System.out.printf("hashes match fresh ones through %d random changes, rollbacks and copies%n", STEPS);
+
+		System.out.println("regions\tns/change\tns/fresh hash");
+		for(int round = 0; round < 2; round++) //first round is warmup
+		{
+			for(int size : new int[] {42, 200, 1000})
+			{
+				Map map = MapLookupBenchmark.buildMap(size);
+				Random rand = new Random(size);
+				long start = System.nanoTime();
+				for(int i = 0; i < UPDATES; i++)
+				{
+					Region region = map.getRegionByIndex(rand.nextInt(size));
+					region.setArmies(region.getArmies() + (i & 1) * 2 - 1 + (rand.nextInt(3) == 0 ? 1 : 0));
+				}
+				double change = (System.nanoTime() - start) / (double) UPDATES;
+
+				int fresh = UPDATES / size;
+				long sink = 0;
+				start = System.nanoTime();
+				for(int i = 0; i < fresh; i++)
+					sink += map.computeStateHash();
+				double scratch = (System.nanoTime() - start) / (double) fresh;
+				if(round == 1)
+					System.out.printf("%d\t%.2f\t%.2f%s%n", size, change, scratch, sink == 1 ? " " : "");
+			}
+		}
+	}
+
+	private static void check(Map map, Random rand)
+	{
+		int size = map.getRegions().size();
+		ArrayDeque<Integer> marks = new ArrayDeque<Integer>();
+		ArrayDeque<Long> markedHashes = new ArrayDeque<Long>(); //the hash at each mark
+		ArrayDeque<Long> markedExact = new ArrayDeque<Long>();
+		BitSet shown = new BitSet();
+		shown.set(0, size);
+		for(int step = 0; step < STEPS; step++)
+		{
+			int index = rand.nextInt(size);
+			Region region = map.getRegionByIndex(index);
+			int action = rand.nextInt(10);
+			if(!map.isVisible(index) && action != 7) //copies make no Region for hidden regions
+				continue;
+			if(action < 3)
+				region.setArmies(rand.nextInt(4) == 0 ? rand.nextInt(5000) : rand.nextInt(40));
+			else if(action < 5)
+				region.setPlayerName(PLAYERS[rand.nextInt(PLAYERS.length)]);
+			else if(action == 5)
+			{
+				marks.push(map.mark());
+				markedHashes.push(map.getStateHash());
+				markedExact.push(map.getExactStateHash());
+			}
+			else if(action == 6 && !marks.isEmpty())
+			{
+				long expected = markedHashes.pop();
+				long expectedExact = markedExact.pop();
+				if(rand.nextBoolean())
+				{
+					map.rollback(marks.pop());
+					if(map.getStateHash() != expected || map.getExactStateHash() != expectedExact)
+						fail("step " + step + ": rollback did not give back the hash at its mark");
+				}
+				else //an outer rollback must still undo what an inner commit kept
+					map.commit(marks.pop());
+			}
+			else if(action == 7 && marks.isEmpty()) //showing and hiding regions is not journaled
+			{
+				shown.flip(rand.nextInt(size));
+				map.setVisibleRegions(shown);
+			}
+			else if(action == 8)
+			{
+				Map copy = map.getMapCopy();
+				if(copy.getStateHash() != map.getStateHash() || copy.getExactStateHash() != map.getExactStateHash())
+					fail("step " + step + ": a copy hashes differently");
+				Region copied = copy.getRegionByIndex(index);
+				int armies = copied.getArmies();
+				copied.setArmies(armies == 0 ? 1 : 0); //counts under 32 have buckets of their own
+				if(copy.getStateHash() == map.getStateHash() || copy.getExactStateHash() == map.getExactStateHash())
+					fail("step " + step + ": changing a copy left its hash alone");
+				copied.setArmies(40);
+				long bucketed = copy.getStateHash();
+				long exact = copy.getExactStateHash();
+				copied.setArmies(45); //same bucket as 40
+				if(copy.getStateHash() != bucketed || copy.getExactStateHash() == exact)
+					fail("step " + step + ": only the exact hash should tell apart counts in one bucket");
+				copied.setArmies(armies);
+				if(copy.getStateHash() != map.getStateHash() || copy.getExactStateHash() != map.getExactStateHash())
+					fail("step " + step + ": changing a copy back did not give back its hash");
+			}
+			else if(action == 9 && marks.isEmpty())
+			{
+				Map other = map.getMapCopy();
+				other.getRegionByIndex(index).setArmies(rand.nextInt(40));
+				map.copyStateFrom(other);
+			}
+			if(map.getStateHash() != map.computeStateHash())
+				fail("step " + step + ": hash differs from a fresh one after action " + action);
+			if(map.getExactStateHash() != map.computeExactStateHash())
+				fail("step " + step + ": exact hash differs from a fresh one after action " + action);
+		}
+	}
+
+	private static void fail(String message)
+	{
+		System.err.println("FAILED: " + message);
+		System.exit(1);
+	}
+}
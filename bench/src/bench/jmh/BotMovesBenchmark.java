@@ -0,0 +1,87 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bench.jmh;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bot.BotStarter;
+import bot.BotState;
+import bot.SearchRandom;
+import map.Map;
+import move.AttackTransferMove;
+import move.PlaceArmiesMove;
+
+/**
+ * Whole move requests on synthetic maps of several sizes. The bot runs in
+ * replay mode, so each search stops after a fixed number of iterations rather
+ * than when its time is up, and a faster search shows as a shorter call.
+ * Changes a request makes to the visible map are rolled back after it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BotMovesBenchmark {
+
+	@Param({"42", "200", "1000"})
+	public int regions;
+
+	private BotState state;
+	private BotStarter bot;
+
+	@Setup
+	public void setUp()
+	{
+		SearchRandom.setReplaySeed(SyntheticMap.SEED);
+		state = SyntheticMap.state(regions, SyntheticMap.SEED);
+		bot = new BotStarter();
+	}
+
+	@Benchmark
+	public ArrayList<PlaceArmiesMove> getPlaceArmiesMoves()
+	{
+		Map map = state.getVisibleMap();
+		int mark = map.mark();
+		ArrayList<PlaceArmiesMove> moves = bot.getPlaceArmiesMoves(state, SyntheticMap.TIME_OUT);
+		map.rollback(mark);
+		return moves;
+	}
+
+	@Benchmark
+	public ArrayList<AttackTransferMove> getAttackTransferMoves()
+	{
+		Map map = state.getVisibleMap();
+		int mark = map.mark();
+		ArrayList<AttackTransferMove> moves = bot.getAttackTransferMoves(state, SyntheticMap.TIME_OUT);
+		map.rollback(mark);
+		return moves;
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bench.jmh;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bot.BotStarter;
+import map.Map;
+import map.MapTopology;
+import map.Region;
+
+/**
+ * The map operations every search evaluation goes through, on synthetic maps
+ * of several sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapOperationsBenchmark {
+
+	private static final int ODDS_QUERIES = 1024;
+
+	@Param({"42", "200", "1000"})
+	public int regions;
+
+	private Map map;
+	private int fromId;    //our border region with the most regions to attack
+	private int[] toIds;   //the regions it attacks
+	private int[] attacks; //its armies spread over them
+	private Region[] interior;
+	private int[] oddsAttackers = new int[ODDS_QUERIES];
+	private int[] oddsDefenders = new int[ODDS_QUERIES];
+	private int next;
+
+	@Setup
+	public void setUp()
+	{
+		map = SyntheticMap.state(regions, SyntheticMap.SEED).getVisibleMap();
+
+		ArrayList<Region> ours = new ArrayList<Region>();
+		ArrayList<Region> border = new ArrayList<Region>();
+		for(Region region : map.getRegions())
+			if(region.ownedBy(MapTopology.ME))
+				(region.isBorder() ? border : ours).add(region);
+		interior = ours.toArray(new Region[ours.size()]);
+
+		Region from = border.get(0);
+		int mostTargets = 0;
+		for(Region region : border)
+		{
+			int targets = 0;
+			for(Region neighbor : region.getNeighbors())
+				if(!neighbor.ownedBy(MapTopology.ME))
+					targets++;
+			if(targets > mostTargets)
+			{
+				from = region;
+				mostTargets = targets;
+			}
+		}
+		from.setArmies(30);
+		fromId = from.getId();
+		toIds = new int[mostTargets];
+		attacks = new int[mostTargets];
+		int i = 0;
+		for(Region neighbor : from.getNeighbors())
+			if(!neighbor.ownedBy(MapTopology.ME))
+			{
+				toIds[i] = neighbor.getId();
+				attacks[i++] = 29 / mostTargets;
+			}
+
+		Random rand = new Random(SyntheticMap.SEED);
+		for(int q = 0; q < ODDS_QUERIES; q++)
+		{
+			oddsAttackers[q] = 1 + rand.nextInt(40);
+			oddsDefenders[q] = 1 + rand.nextInt(30);
+		}
+	}
+
+	@Benchmark
+	public Map getMapCopy()
+	{
+		return map.getMapCopy();
+	}
+
+	@Benchmark
+	public double utility()
+	{
+		return map.Utility(MapTopology.ME, MapTopology.OPPONENT);
+	}
+
+	@Benchmark
+	public double simulateAttacks()
+	{
+		int mark = map.mark();
+		map.simulateAttacks(fromId, attacks, toIds, MapTopology.ME);
+		double utility = map.Utility(MapTopology.ME, MapTopology.OPPONENT);
+		map.rollback(mark);
+		return utility;
+	}
+
+	@Benchmark
+	public double probabilityToTake()
+	{
+		int q = next++ & (ODDS_QUERIES - 1);
+		return BotStarter.probabilityToTake(oddsAttackers[q], oddsDefenders[q]);
+	}
+
+	@Benchmark
+	public Region closestAdjacentToBorder()
+	{
+		Region region = interior[next++ % interior.length];
+		return region.closestAdjacentToBorder();
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bench.jmh;
+
+import java.util.Random;
+
+import bot.BotState;
+
+/**
+ * Builds the states the JMH benchmarks run on: a grid of regions, six to a
+ * SuperRegion, joined to the regions to their right and below and, now and then,
+ * diagonally. We hold the left third, the opponent the right third and the
+ * neutrals the middle, all of it visible. The same size and seed always give
+ * the same state.
+ */
+final class SyntheticMap {
+
+	static final long SEED = 7;
+
+	/* the timebank given with each move request, and time_per_move */
+	static final long TIME_OUT = 200;
+	static final int TIME_PER_MOVE = 100;
+
+	private SyntheticMap()
+	{
+	}
+
+	static BotState state(int regions, long seed)
+	{
+		Random rand = new Random(seed);
+		int width = (int) Math.ceil(Math.sqrt(regions));
+
+		BotState state = new BotState();
+		setting(state, "your_bot", "player1");
+		setting(state, "opponent_bot", "player2");
+		setting(state, "timebank", String.valueOf(10 * TIME_PER_MOVE));
+		setting(state, "time_per_move", String.valueOf(TIME_PER_MOVE));
+		setting(state, "max_rounds", "45");
+
+		StringBuilder superRegions = new StringBuilder("setup_map super_regions");
+		for(int s = 1; s <= (regions + 5) / 6; s++)
+			superRegions.append(' ').append(s).append(' ').append(1 + rand.nextInt(5));
+		StringBuilder list = new StringBuilder("setup_map regions");
+		for(int r = 1; r <= regions; r++)
+			list.append(' ').append(r).append(' ').append((r + 5) / 6);
+		StringBuilder neighbors = new StringBuilder("setup_map neighbors");
+		for(int r = 1; r <= regions; r++)
+		{
+			StringBuilder adjacent = new StringBuilder();
+			boolean right = r % width != 0 && r + 1 <= regions;
+			boolean below = r + width <= regions;
+			if(right)
+				adjacent.append(r + 1);
+			if(below)
+				adjacent.append(adjacent.length() > 0 ? "," : "").append(r + width);
+			if(right && below && rand.nextInt(4) == 0)
+				adjacent.append(',').append(r + width + 1);
+			if(adjacent.length() > 0)
+				neighbors.append(' ').append(r).append(' ').append(adjacent);
+		}
+		StringBuilder update = new StringBuilder("update_map");
+		for(int r = 1; r <= regions; r++)
+		{
+			int column = (r - 1) % width;
+			if(column < width / 3)
+				update.append(' ').append(r).append(" player1 ").append(1 + rand.nextInt(12));
+			else if(column >= width - width / 3)
+				update.append(' ').append(r).append(" player2 ").append(1 + rand.nextInt(12));
+			else
+				update.append(' ').append(r).append(" neutral 2");
+		}
+
+		state.setupMap(superRegions.toString().split(" "));
+		state.setupMap(list.toString().split(" "));
+		state.setupMap(neighbors.toString().split(" "));
+		setting(state, "starting_armies", "5");
+		state.updateMap(update.toString().split(" "));
+		return state;
+	}
+
+	private static void setting(BotState state, String key, String value)
+	{
+		state.updateSettings(key, new String[] {"settings", key, value});
+	}
+}
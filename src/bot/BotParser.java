@@ -15,79 +15,224 @@
 
 package bot;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Scanner;
 
 import map.Region;
+import metrics.BotCallEvent;
+import metrics.CommandEvent;
+import metrics.Histogram;
+import metrics.Metrics;
+import move.MoveWriter;
 import move.PlaceArmiesMove;
 import move.AttackTransferMove;
 
 public class BotParser {
 	
-	final Scanner scan;
+	private static final Histogram parseTime = Metrics.histogram("round.parse.nanos");
+	private static final Histogram parseAllocated = Metrics.histogram("round.parse.allocated.bytes");
 	
+	final ProtocolReader reader;
+	
+	final MoveWriter output;
+
 	final Bot bot;
 	
 	BotState currentState;
 	
+	private long parseNanos; //time spent on this round's commands other than move requests, while metrics are on
+	private long parseBytes; //and what they allocated
+	
 	public BotParser(Bot bot)
 	{
-		this.scan = new Scanner(System.in);
+		this(bot, System.in, System.out);
+	}
+
+	public BotParser(Bot bot, InputStream in, OutputStream out)
+	{
+		this.reader = new ProtocolReader(in);
+		this.output = new MoveWriter(out);
 		this.bot = bot;
 		this.currentState = new BotState();
 	}
 	
 	public void run()
 	{
-		while(scan.hasNextLine())
-		{
-			String line = scan.nextLine().trim();
-			if(line.length() == 0) { continue; }
-			String[] parts = line.split(" ");
-			if(parts[0].equals("pick_starting_region")) //pick which regions you want to start with
+		try {
+			while(reader.nextLine())
 			{
-				currentState.setPickableStartingRegions(parts);
-				Region startingRegion = bot.getStartingRegion(currentState, Long.valueOf(parts[1]));
-				
-				System.out.println(startingRegion.getId());
+				long start = Metrics.ENABLED ? System.nanoTime() : 0;
+				long startBytes = Metrics.allocatedBytes();
+				String command = reader.nextWord();
+				CommandEvent event = new CommandEvent(); //a no-op unless Flight Recorder is recording it
+				event.begin();
+				try {
+					handle(command);
+				}
+				catch(IOException e) {
+					throw e;
+				}
+				catch(Exception e) {
+					System.err.printf("Unable to parse line \"%s ...\": %s\n", command, e.getMessage());
+				}
+				if(Metrics.ENABLED && !command.equals("go") && !command.equals("pick_starting_region"))
+				{
+					parseNanos += System.nanoTime() - start;
+					parseBytes += Metrics.allocatedBytes() - startBytes;
+				}
+				if(event.shouldCommit())
+				{
+					event.command = command;
+					event.round = currentState.getRoundNumber();
+					event.commit();
+				}
 			}
-			else if(parts.length == 3 && parts[0].equals("go")) 
+		}
+		catch(IOException e) {
+			System.err.println("Unable to read input " + e.getMessage());
+		}
+		if(Metrics.ENABLED) //the game is over
+			Metrics.dump();
+	}
+
+	/**
+	 * Reads the rest of a line starting with the given command and acts on it
+	 */
+	private void handle(String command) throws IOException
+	{
+		if(command.equals("pick_starting_region")) //pick which regions you want to start with
+		{
+			long timeOut = reader.nextLong();
+			currentState.clearPickableStartingRegions();
+			while(reader.hasMore())
+				currentState.addPickableStartingRegion(reader.nextInt());
+			BotCallEvent call = new BotCallEvent();
+			call.begin();
+			Region startingRegion = bot.getStartingRegion(currentState, timeOut);
+			endCall(call, "getStartingRegion", timeOut, 1);
+			
+			output.append(startingRegion.getId()).endResponse();
+		}
+		else if(command.equals("go")) 
+		{
+			//we need to do a move
+			String moveType = reader.nextWord();
+			long timeOut = reader.nextLong();
+			if(moveType.equals("place_armies")) 
 			{
-				//we need to do a move
-				String output = "";
-				if(parts[1].equals("place_armies")) 
-				{
-					//place armies
-					ArrayList<PlaceArmiesMove> placeArmiesMoves = bot.getPlaceArmiesMoves(currentState, Long.valueOf(parts[2]));
-					for(PlaceArmiesMove move : placeArmiesMoves)
-						output = output.concat(move.getString() + ",");
-				} 
-				else if(parts[1].equals("attack/transfer")) 
+				if(Metrics.ENABLED) //the round's input has all been read
 				{
-					//attack/transfer
-					ArrayList<AttackTransferMove> attackTransferMoves = bot.getAttackTransferMoves(currentState, Long.valueOf(parts[2]));
-					for(AttackTransferMove move : attackTransferMoves)
-						output = output.concat(move.getString() + ",");
+					parseTime.record(parseNanos);
+					parseAllocated.record(parseBytes);
+					parseNanos = 0;
+					parseBytes = 0;
 				}
-				if(output.length() > 0)
-					System.out.println(output);
+				//place armies
+				BotCallEvent call = new BotCallEvent();
+				call.begin();
+				ArrayList<PlaceArmiesMove> placeArmiesMoves = bot.getPlaceArmiesMoves(currentState, timeOut);
+				endCall(call, "getPlaceArmiesMoves", timeOut, placeArmiesMoves.size());
+				for(PlaceArmiesMove move : placeArmiesMoves)
+					output.add(move);
+			} 
+			else if(moveType.equals("attack/transfer")) 
+			{
+				//attack/transfer
+				BotCallEvent call = new BotCallEvent();
+				call.begin();
+				ArrayList<AttackTransferMove> attackTransferMoves = bot.getAttackTransferMoves(currentState, timeOut);
+				endCall(call, "getAttackTransferMoves", timeOut, attackTransferMoves.size());
+				for(AttackTransferMove move : attackTransferMoves)
+					output.add(move);
+			}
+			output.endResponse(); //says "No moves" if there were none
+		} else if(command.equals("settings")) {
+			//update settings
+			String key = reader.nextWord();
+			if(key.equals("starting_regions"))
+			{
+				currentState.clearPickableStartingRegions();
+				while(reader.hasMore())
+					currentState.addPickableStartingRegion(reader.nextInt());
+			}
+			else if(key.equals("starting_armies"))
+				currentState.setStartingArmies(reader.nextInt());
+			else
+				currentState.updateSetting(key, reader.nextWord());
+		} else if(command.equals("setup_map")) {
+			//initial full map is given
+			setupMap(reader.nextWord());
+		} else if(command.equals("update_map")) {
+			//all visible regions are given
+			currentState.beginMapUpdate();
+			try {
+				while(reader.hasMore())
+					currentState.updateRegion(reader.nextInt(), reader.nextWord(), reader.nextInt());
+			}
+			finally {
+				currentState.endMapUpdate();
+			}
+		} else if(command.equals("opponent_moves")) {
+			//all visible opponent moves are given
+			currentState.clearOpponentMoves();
+			while(reader.hasMore())
+			{
+				String playerName = reader.nextWord();
+				String moveType = reader.nextWord();
+				if(moveType.equals("place_armies"))
+					currentState.addOpponentPlaceArmies(playerName, reader.nextInt(), reader.nextInt());
+				else if(moveType.equals("attack/transfer"))
+					currentState.addOpponentAttackTransfer(playerName, reader.nextInt(), reader.nextInt(), reader.nextInt());
 				else
-					System.out.println("No moves");
-			} else if(parts[0].equals("settings")) {
-				//update settings
-				currentState.updateSettings(parts[1], parts);
-			} else if(parts[0].equals("setup_map")) {
-				//initial full map is given
-				currentState.setupMap(parts);
-			} else if(parts[0].equals("update_map")) {
-				//all visible regions are given
-				currentState.updateMap(parts);
-			} else if(parts[0].equals("opponent_moves")) {
-				//all visible opponent moves are given
-				currentState.readOpponentMoves(parts);
-			} else {
-				System.err.printf("Unable to parse line \"%s\"\n", line);
+					throw new IllegalArgumentException("Unknown move type " + moveType);
+			}
+		} else {
+			System.err.printf("Unable to parse line starting with \"%s\"\n", command);
+		}
+	}
+
+	private void endCall(BotCallEvent call, String method, long timeOut, int moves)
+	{
+		if(call.shouldCommit())
+		{
+			call.method = method;
+			call.round = currentState.getRoundNumber();
+			call.timeOut = timeOut;
+			call.moves = moves;
+			call.commit();
+		}
+	}
+
+	private void setupMap(String part) throws IOException
+	{
+		if(part.equals("super_regions"))
+		{
+			while(reader.hasMore())
+				currentState.addSuperRegion(reader.nextInt(), reader.nextInt());
+		}
+		else if(part.equals("regions"))
+		{
+			while(reader.hasMore())
+				currentState.addRegion(reader.nextInt(), reader.nextInt());
+		}
+		else if(part.equals("neighbors"))
+		{
+			while(reader.hasMore())
+			{
+				int regionId = reader.nextInt();
+				do
+					currentState.addNeighbor(regionId, reader.nextInt());
+				while(reader.followedByComma());
 			}
+			currentState.endNeighbors();
+		}
+		else if(part.equals("wastelands"))
+		{
+			currentState.clearWastelands();
+			while(reader.hasMore())
+				currentState.addWasteland(reader.nextInt());
 		}
 	}
 
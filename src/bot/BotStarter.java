@@ -15,10 +15,6 @@
 
 package bot;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.math.RoundingMode;
-
 /**
  * 
  * This class implements the Bot interface and overrides its Move methods.
@@ -31,20 +27,68 @@ import java.math.RoundingMode;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import map.Adjacency;
+import map.FrontierField;
 import map.Map;
+import map.MapTopology;
+import map.RegionDistances;
 import map.Region;
+import metrics.AttackSearchEvent;
+import metrics.Histogram;
+import metrics.Metrics;
+import metrics.UtilityEvaluationEvent;
 import move.AttackTransferMove;
 import move.PlaceArmiesMove;
 
 public class BotStarter implements Bot 
 {
 	boolean firstRegion = true; // boolean to see if the bot is picking its first starting region
-	boolean visited[]; //list of visited nodes for bfs
-	Region cRegion; //current root region for bfs
+	Region cRegion; //the last starting region picked
+	final TurnBudget budget = new TurnBudget(); //splits the timebank over the game's move requests
+	private long deployBytes; //what this round's deployment allocated, while metrics are on
+	
+	/* What the searches have worked out this game, see TranspositionTable. The deployment
+	 * search stores the utility of every state it evaluates and the attacks it plans for each
+	 * border region; the attack searches on the pool start from those plans. Only the request's
+	 * thread stores, so replays stay the same however the pool runs.
+	 */
+	final TranspositionTable utilities = new TranspositionTable("search.utilities", 1 << 14);
+	final TranspositionTable plans = new TranspositionTable("search.plans", 1 << 15);
+	private static final long PLAN_SALT = 0x5DEECE66DL * 0x9E3779B97F4A7C15L; //keeps plan keys apart from state hashes
+	
+	/* what the searches record while metrics are on, see Metrics */
+	private static final Histogram deployTime = Metrics.histogram("deploy.nanos");
+	private static final Histogram deployAllocated = Metrics.histogram("deploy.allocated.bytes");
+	private static final Histogram deployIterations = Metrics.histogram("deploy.iterations");
+	private static final Histogram deployAcceptance = Metrics.histogram("deploy.acceptance.permille");
+	private static final Histogram attackTime = Metrics.histogram("attack.nanos");
+	private static final Histogram attackAllocated = Metrics.histogram("attack.allocated.bytes"); //the request's thread and its searches'
+	private static final Histogram attackIterations = Metrics.histogram("attack.search.iterations");
+	private static final Histogram attackAcceptance = Metrics.histogram("attack.search.acceptance.permille");
+	private static final Histogram roundAllocated = Metrics.histogram("round.allocated.bytes"); //deployment and attacks together
+	
+	/* attack searches for different regions run in parallel on this pool, shared by every bot in the JVM */
+	static final int SEARCH_THREADS = Math.max(1, Integer.getInteger("bot.searchThreads", Runtime.getRuntime().availableProcessors()));
+	private static final ExecutorService searchPool = Executors.newFixedThreadPool(SEARCH_THREADS, new ThreadFactory() {
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable task)
+		{
+			Thread thread = new Thread(task, "attack-search-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
 	
 	@Override
 	/**
@@ -55,7 +99,6 @@ public class BotStarter implements Bot
 	public Region getStartingRegion(BotState state, Long timeOut)
 	{
 		int temp = 100, choice = 0, n;
-		Region currRegion; //current region for bfs
 		
 		if(firstRegion){
 			for(int i=0; i<state.getPickableStartingRegions().size();i++){
@@ -67,31 +110,26 @@ public class BotStarter implements Bot
 			Region startingRegion = state.getFullMap().getRegion(regionId);
 			firstRegion = false;
 			cRegion = startingRegion;
-			visited = new boolean[state.getFullMap().getRegions().size()]; //assuming region ids correspond to size of map
 			return startingRegion;
 		}
 		else{
-			// BFS
-			Queue<Region> q = new LinkedList<Region>();
-			q.add(cRegion);
-			while(!q.isEmpty()){
-				currRegion = q.remove();
-				
-				if(!visited[currRegion.getId()]){
-					visited[currRegion.getId()] = true;
-					for(int i=0;i<currRegion.getNeighbors().size();i++){
-						for(int j=0;j<state.getPickableStartingRegions().size();j++){
-							if(currRegion.getNeighbors().get(i).equals(state.getPickableStartingRegions().get(j))){
-								cRegion = state.getPickableStartingRegions().get(j);
-								return state.getPickableStartingRegions().get(j);
-							}
-						}
-						if(!visited[currRegion.getNeighbors().get(i).getId()])q.add(currRegion.getNeighbors().get(i));
-					}
-				}	
+			//pick the region closest to the last one, by the distances worked out at setup
+			RegionDistances distances = state.getFullMap().getTopology().getDistances();
+			Region closest = null;
+			int closestDistance = Integer.MAX_VALUE;
+			for(Region pickable : state.getPickableStartingRegions()){
+				int distance = distances.distance(cRegion.getIndex(), pickable.getIndex());
+				if(distance > 0 && distance < closestDistance){ //the last pick itself is not on offer
+					closest = pickable;
+					closestDistance = distance;
+				}
 			}
-			System.err.println("---------BFS Not Working--------");
-			return null;
+			if(closest == null){
+				System.err.println("No pickable region is connected to " + cRegion.getId());
+				closest = state.getPickableStartingRegions().get(0);
+			}
+			cRegion = closest;
+			return closest;
 		}
 	}
 
@@ -102,26 +140,30 @@ public class BotStarter implements Bot
 	 * The algorithm is as follows:
 	 * 	Find which regions we can deploy to
 	 *  give a random initial configuration of deployed armies
-	 *  Run Simulated Annealing for 500ms (the time alloted each round). Any time it takes over that to return 
-	 *  	will be deducted from the 10000ms time bank
+	 *  Run Simulated Annealing for as long as the TurnBudget allows, which is the time added to the
+	 *  	timebank each move plus a share of what has been saved up
 	 *  Prepare Return list and adjust current values of armies for the visible map.
 	 * @return The list of PlaceArmiesMoves for one round
 	 */
 	public ArrayList<PlaceArmiesMove> getPlaceArmiesMoves(BotState state, Long timeOut) 
 	{
-		long startTime = System.nanoTime();
+		long startNanos = Metrics.ENABLED ? System.nanoTime() : 0;
+		long startBytes = Metrics.allocatedBytes();
+		Deadline deadline = budget.startRequest(state, timeOut);
+		SearchRandom rand = SearchRandom.forThread();
 		double T = 500;
 		ArrayList<PlaceArmiesMove> placeArmiesMoves = new ArrayList<PlaceArmiesMove>();
 		String myName = state.getMyPlayerName();
 		
 		int armiesToDeploy = state.getStartingArmies();
 		Map mapCopy = state.getVisibleMap().getMapCopy();
+		Map scratch = mapCopy.getMapCopy(); //reused by every evaluation below, only its state is recopied
 		
-		LinkedList<Region> visibleRegions = mapCopy.getRegions();
+		ArrayList<Region> visibleRegions = mapCopy.getRegions();
 		ArrayList<Region> deployableRegions = new ArrayList<Region>();
 		//first, get our border regions and put them in deployable regions
 		for(int i = 0; i < visibleRegions.size(); i++){
-			if(visibleRegions.get(i).ownedByPlayer(myName) && visibleRegions.get(i).isBorder()){
+			if(visibleRegions.get(i).ownedBy(MapTopology.ME) && visibleRegions.get(i).isBorder()){
 				deployableRegions.add(visibleRegions.get(i));
 			}
 		}
@@ -141,7 +183,7 @@ public class BotStarter implements Bot
 		int k = 0;
 		
 		while(deployed != armiesToDeploy){
-			if(Math.random() < probability){
+			if(rand.nextDouble() < probability){
 				deployments[k]++;
 				deployed++;
 			}
@@ -150,9 +192,10 @@ public class BotStarter implements Bot
 		
 		
 		//get current Utility
-		applyDeployments(mapCopy, deployments, ids);
-		double currentUtil = expectedUtilityAfter(state, mapCopy, myName);
-		deapplyDeployments(mapCopy, deployments, ids);
+		int mark = mapCopy.mark();
+		mapCopy.simulateDeployments(ids, deployments);
+		double currentUtil = expectedUtilityAfter(state, mapCopy, scratch, myName, rand);
+		mapCopy.rollback(mark);
 		
 		int [] oldDeploy = new int[deployments.length];
 		//set up loop
@@ -160,21 +203,24 @@ public class BotStarter implements Bot
 		
 		int[] Max_deployments = Arrays.copyOf(deployments, deployments.length);
 		int count = 0;
+		int accepted = 0; //moves to the successor, better or not
 		double next, deltaE;
 		while(true){
 			if(T == 0) break; 
 			oldDeploy = Arrays.copyOf(deployments, deployments.length);
 			
-			randomPermutation(deployments);
-			applyDeployments(mapCopy, deployments, ids);
-			next = expectedUtilityAfter(state, mapCopy, myName);
-			deapplyDeployments(mapCopy, deployments, ids);
+			randomPermutation(deployments, rand);
+			mark = mapCopy.mark();
+			mapCopy.simulateDeployments(ids, deployments);
+			next = expectedUtilityAfter(state, mapCopy, scratch, myName, rand);
+			mapCopy.rollback(mark);
 			
 			//get the random successor's Utility
 			
 			deltaE = next - currentUtil;
 			if(deltaE > 0){//old = new
 				currentUtil = next;
+				accepted++;
 				
 				if(next > maxUtil){
 					maxUtil = next;
@@ -182,24 +228,27 @@ public class BotStarter implements Bot
 				}
 			}else{
 				double acceptProb = Math.exp(deltaE/T);
-				if(Math.random() < acceptProb){
+				if(rand.nextDouble() < acceptProb){
 					currentUtil = next;
+					accepted++;
 				}else{
 					deployments = oldDeploy;
 				}
 			}
 			count++;
-			T = computeT(startTime,200);
+			deadline.tick();
+			T = computeT(deadline);
 		}
 
 		int armiesToDisperse = 0;
 		//for those deployments which do not add any Utility, put those on another index > 0, if such exists
 		for(int i = 0; i < Max_deployments.length; i++){
 			
-			double without = this.expectedUtilityAfter(state, mapCopy, myName);
+			double without = this.expectedUtilityAfter(state, mapCopy, scratch, myName, rand);
+			mark = mapCopy.mark();
 			mapCopy.getRegion(ids[i]).setArmies(mapCopy.getRegion(ids[i]).getArmies() + Max_deployments[i]);
-			double with = this.expectedUtilityAfter(state, mapCopy, myName);
-			mapCopy.getRegion(ids[i]).setArmies(mapCopy.getRegion(ids[i]).getArmies() - Max_deployments[i]);
+			double with = this.expectedUtilityAfter(state, mapCopy, scratch, myName, rand);
+			mapCopy.rollback(mark);
 			
 			if(with <= without){
 				armiesToDisperse += Max_deployments[i];
@@ -235,7 +284,16 @@ public class BotStarter implements Bot
 			//System.err.println("Deployment of  " + Max_deployments[i] + " armies to region " + ids[i] + ".");
 		}
 		
+		if(Metrics.ENABLED)
+		{
+			deployTime.record(System.nanoTime() - startNanos);
+			deployBytes = Metrics.allocatedBytes() - startBytes;
+			deployAllocated.record(deployBytes);
+			deployIterations.record(count);
+			deployAcceptance.record(count == 0 ? 0 : 1000L * accepted / count);
+		}
 		//go get 'em boy!
+		budget.finishRequest();
 		return placeArmiesMoves;
 	}
 
@@ -247,206 +305,86 @@ public class BotStarter implements Bot
 	 */
 	public ArrayList<AttackTransferMove> getAttackTransferMoves(BotState state, Long timeOut) 
 	{
+		long startNanos = Metrics.ENABLED ? System.nanoTime() : 0;
+		long startBytes = Metrics.allocatedBytes();
 		ArrayList<AttackTransferMove> attackTransferMoves = new ArrayList<AttackTransferMove>();
 		Map mapCopy = state.getVisibleMap().getMapCopy();
 		String myName = state.getMyPlayerName();
 		int armies = 0;
-		String opponentName = state.getOpponentPlayerName();
+		SearchRandom rand = SearchRandom.forThread();
+		Deadline turn = budget.startRequest(state, timeOut);
 		
+		ArrayList<Region> attackFrom = new ArrayList<Region>();
+		ArrayList<AttackSearch> searches = new ArrayList<AttackSearch>();
+		ArrayList<AttackTransferMove> transfers = new ArrayList<AttackTransferMove>();
+		//one search from the whole border finds the way out for every interior region at once
+		FrontierField frontier = FrontierField.compute(state.getVisibleMap(), MapTopology.ME);
 		for(Region fromRegion : state.getVisibleMap().getRegions())
 		{
-			if(fromRegion.ownedByPlayer(myName)) //Do an attack or transfer
+			if(fromRegion.ownedBy(MapTopology.ME)) //Do an attack or transfer
 			{
-				//New transfer code
-				//Tested
+				//Transfer every interior stack one step towards the border
 				if(!fromRegion.isBorder() && fromRegion.getArmies() > 1)
 				{
-					Region nextStep = fromRegion.closestAdjacentToBorder();
+					Region nextStep = frontier.nextStep(fromRegion);
 					if(nextStep != null)
 					{
 						armies = fromRegion.getArmies() - 1;
-						attackTransferMoves.add(new AttackTransferMove(myName, fromRegion, nextStep, armies));
-						break;
+						transfers.add(new AttackTransferMove(myName, fromRegion, nextStep, armies));
 					}
 				}
 				//Attack
 				else if(fromRegion.isBorder() && fromRegion.getArmies() > 1)
 				{	
-					//get list of regions I can attack
-					ArrayList<Region> attackable = new ArrayList<Region>();
-					for(int i = 0; i < fromRegion.getNeighbors().size(); i++){
-						Region current = fromRegion.getNeighbors().get(i);
-						if(!current.getPlayerName().equals(myName)){
-							attackable.add(current);
-						}
-					}
-					attackable.add(fromRegion);
-					
-					//set up int []'s for each of id's and planned attacks
-					int fromId = fromRegion.getId();
-					int[] ids = new int[attackable.size()];
-					String[] names = new String[ids.length];
-					int[] attacks = new int[ids.length];
-					int[] defenders = new int[ids.length];
-					int totalOnAttacker = fromRegion.getArmies();
-					//set up ids, playernames, and defenders
-					for(int i = 0; i < ids.length; i++){
-						ids[i] = attackable.get(i).getId();
-						names[i] = attackable.get(i).getPlayerName();
-						defenders[i] = attackable.get(i).getArmies();
-					}
-					
-					//set up initial configuration of attacks
-					
-					int[] currAttacks;
-					double lastUtil = -Double.MAX_VALUE;
-					double currUtil = -Double.MAX_VALUE;
-					double probability = 1.0/ids.length;
-					int attacked = 0;
-					int k = 0;
-					
-					while(attacked != (fromRegion.getArmies() - 1)){
-						if(Math.random() < probability){
-							attacks[k]++;
-							attacked++;
-						}
-						k = (k+1) % ids.length;
-					}
-					long startTime = System.nanoTime();
-					double T = 500;
-					double deltaE = 0;
-					double maxUtil = -Double.MAX_VALUE;
-					int[] maxAttacks = Arrays.copyOf(attacks, attacks.length);
-					//Use a simulated Annealing search to find the 'best' attack combination
-					
-					while(true)
-					{	
-						if(T == 0) break;
-						//Create a random permutation of the attack
-						currAttacks = Arrays.copyOf(attacks, attacks.length);
-						for(int i = 0; i <= fromRegion.getArmies()/5; i++)
-							randomPermutation(currAttacks);
-						
-						//Simulate the permutation of the attack and get its utility
-						
-						mapCopy.simulateAttacks(fromId, currAttacks, ids, myName);
-						currUtil = mapCopy.Utility(myName, opponentName);
-						mapCopy.undoSimulation(fromId, currAttacks, defenders, ids, names, totalOnAttacker);
-						
-						
-						deltaE = currUtil - lastUtil;
-						//If the permutation has better utility than before, accept it
-						if(deltaE > 0)
-						{
-							lastUtil = currUtil;
-							attacks = currAttacks;
-							if(currUtil > maxUtil){
-								maxUtil = currUtil;
-								maxAttacks = Arrays.copyOf(attacks, attacks.length);
-							}
-						}else {
-							double acceptProb = Math.exp(deltaE/T);
-							if(Math.random() < acceptProb){
-								lastUtil = currUtil;
-								attacks = currAttacks;
-							
-							}
-						}
-						T = computeT(startTime,300);
-					}
-					attacks = maxAttacks;
-					
-					//Sanity checks on attacks
-					for(int i = 0; i < attacks.length - 1; i++)
-					{
-						//If there is a low chance to take any region, don't do the attack
-						if(probabilityToTake(attacks[i],state.getVisibleMap().getRegion(ids[i]).getArmies()) < 0.35)
-						{
-							attacks[attacks.length - 1] += attacks[i];
-							attacks[i] = 0;
-						}
-					}
-					
-					//Try to make other attacks which are close to being successful be successful
-					boolean attackMade = false;
-					for(int i = 0; i < attacks.length - 1; i++)
-					{
-						if(attacks[i] != 0)
-						{
-							//If we can take a region with greater than 0.6125 chance, make the attack
-							if(probabilityToTake(attacks[i],state.getVisibleMap().getRegion(ids[i]).getArmies()) > 0.6125)
-							{
-								attackMade = true;
-							}
-							else
-							{
-								//Otherwise, if we have enough remaining armies to make the attack, take it
-								if(probabilityToTake(attacks[i] + attacks[attacks.length - 1], state.getVisibleMap().getRegion(ids[i]).getArmies()) > 0.6125)
-								{
-									//Give just enough armies to pass 0.6125 threshold
-									while(probabilityToTake(attacks[i], state.getVisibleMap().getRegion(ids[i]).getArmies()) <= 0.6125)
-									{
-										attacks[i]++;
-										attacks[attacks.length - 1]--;
-									}
-									attackMade = true;
-								}
-								else
-								{
-									//If we don't have a good chance of taking even with extra armies, don't attack
-									attacks[attacks.length - 1] += attacks[i];
-									attacks[i] = 0;
-								}
-							}
-						}
-					}
-					
-					//If armies are leftover, make more attacks if we can attack with >0.6125 chance of winning
-					if(attacks[attacks.length - 1] > 0)
-					{
-						for(int i = 0; i < attacks.length - 1; i++)
-						{
-							//If we have enough leftover armies to make this attack, take it
-							if(attacks[i] == 0 && probabilityToTake(attacks[attacks.length - 1], state.getVisibleMap().getRegion(ids[i]).getArmies()) > 0.6125)
-							{
-								//Give just enough armies to pass 0.6125 threshold
-								while(probabilityToTake(attacks[i], state.getVisibleMap().getRegion(ids[i]).getArmies()) <= 0.6125)
-								{
-									attacks[i]++;
-									attacks[attacks.length - 1]--;
-								}
-								attackMade = true;
-							}
-						}
-					}
-					
-					//Distribute remaining armies if an attack was made and armies are leftover - go all in
-					if(attackMade && attacks[attacks.length - 1] > 0)
-					{
-						int index = 0;
-						while(attacks[attacks.length - 1] > 0)
-						{
-							if(attacks[index] > 0)
-							{
-								attacks[index]++;
-								attacks[attacks.length - 1]--;
-							}
-							index = (index + 1) % (attacks.length - 1);
-						}
-					}
-					
-					//Take the attack actions decided
-					for(int i = 0; i < attacks.length; i++)
-					{
-						if(fromRegion.getId() != ids[i] && attacks[i] > 0)
-						{
-							attackTransferMoves.add(new AttackTransferMove(myName, fromRegion, state.getVisibleMap().getRegion(ids[i]), attacks[i]));						
-						}
-					}
+					//get the ids of the regions I can attack
+					int[] ids = attackTargets(state.getVisibleMap(), fromRegion);
+					attackFrom.add(fromRegion);
+					searches.add(new AttackSearch(mapCopy, fromRegion.getId(), ids, rand.split(), state.getRoundNumber(), plans));
 				}
 			}
 		}
 		
+		//The searches are independent, so they run side by side on the search pool, each on its own
+		//copy of the map. Each gets an even share of the turn for every round of searches the pool runs.
+		//A replay counts iterations, so it shares them as if one thread ran every search, whatever the machine.
+		int lanes = SearchRandom.isReplay() ? 1 : SEARCH_THREADS;
+		int rounds = (searches.size() + lanes - 1) / lanes;
+		long share = turn.remainingMillis() / Math.max(1, rounds);
+		for(AttackSearch search : searches)
+			search.setBudget(share, turn);
+		List<Future<int[]>> results;
+		try {
+			results = searchPool.invokeAll(searches);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			results = new ArrayList<Future<int[]>>();
+		}
+		
+		for(int r = 0; r < results.size(); r++)
+		{
+			Region fromRegion = attackFrom.get(r);
+			int[] ids = searches.get(r).ids;
+			int[] attacks;
+			try {
+				attacks = results.get(r).get();
+			}
+			catch(Exception e) {
+				System.err.println("Attack search from region " + fromRegion.getId() + " failed: " + e);
+				continue;
+			}
+			
+			//Take the attack actions decided
+			for(int i = 0; i < attacks.length; i++)
+			{
+				if(fromRegion.getId() != ids[i] && attacks[i] > 0)
+				{
+					attackTransferMoves.add(new AttackTransferMove(myName, fromRegion, state.getVisibleMap().getRegion(ids[i]), attacks[i]));						
+				}
+			}
+		}
+		attackTransferMoves.addAll(transfers);
+		
 		//System.err.println("\n Here is what we want to attack: ");
 		//for(int i = 0; i < attackTransferMoves.size(); i++){
 		//	System.err.println(attackTransferMoves.get(i).getFromRegion().getId() + " to " + attackTransferMoves.get(i).getToRegion().getId() + " with " + attackTransferMoves.get(i).getArmies());
@@ -461,56 +399,320 @@ public class BotStarter implements Bot
 		int bmCount = 0;
 		
 		for(int i=0;i<state.getVisibleMap().getRegions().size();i++){
-			if(state.getVisibleMap().getRegions().get(i).getPlayerName().equals(opponentName))theirRegions++;
+			if(state.getVisibleMap().getRegions().get(i).ownedBy(MapTopology.OPPONENT))theirRegions++;
 			visRegionCount++;
 		}
 		
+		if(Metrics.ENABLED)
+		{
+			long allocated = Metrics.allocatedBytes() - startBytes;
+			for(AttackSearch search : searches)
+				allocated += search.allocated;
+			attackTime.record(System.nanoTime() - startNanos);
+			attackAllocated.record(allocated);
+			roundAllocated.record(deployBytes + allocated);
+			if(Metrics.DEBUG)
+				System.err.printf("round %d allocated %d bytes: deploy %d, attack %d\n",
+						state.getRoundNumber(), deployBytes + allocated, deployBytes, allocated);
+			deployBytes = 0;
+		}
+		budget.finishRequest();
 		return attackTransferMoves;
 	}
 	
+	/**
+	 * @param map the map fromRegion is on
+	 * @param fromRegion a region of ours
+	 * @return the ids of its neighbors on the map that we do not own, in neighbor order,
+	 * 		   followed by its own id for the armies that stay behind
+	 */
+	static int[] attackTargets(Map map, Region fromRegion)
+	{
+		MapTopology topology = map.getTopology();
+		Adjacency adjacency = topology.getAdjacency();
+		int from = fromRegion.getIndex();
+		int[] ids = new int[adjacency.degree(from) + 1];
+		int count = 0;
+		for(int k = adjacency.start(from); k < adjacency.end(from); k++)
+		{
+			int neighbor = adjacency.target(k);
+			if(map.isVisible(neighbor) && map.getOwner(neighbor) != MapTopology.ME)
+				ids[count++] = topology.getRegionId(neighbor);
+		}
+		ids[count++] = fromRegion.getId();
+		return Arrays.copyOf(ids, count);
+	}
+	
+	/**
+	 * Searches for the best split of the armies on one border region between attacks on its
+	 * neighbors, using simulated annealing on the given map and then sanity checks on the result.
+	 * @param map a map to simulate on, left as it was found
+	 * @param fromId the region attacking
+	 * @param ids the regions that can be attacked, followed by fromId itself for armies kept back
+	 * @param deadline when to stop searching
+	 * @param rand the search's random number source
+	 * @param start the attacks to start searching from, or null to start from a random split
+	 * @return the number of armies to send to each of ids, the last entry being those staying behind
+	 */
+	static int[] planAttacks(Map map, int fromId, int[] ids, Deadline deadline, Random rand, int[] start)
+	{
+		int available = map.getRegion(fromId).getArmies();
+		int[] attacks = start != null ? start : new int[ids.length];
+		
+		//set up initial configuration of attacks
+		
+		int[] currAttacks;
+		double lastUtil = -Double.MAX_VALUE;
+		double currUtil = -Double.MAX_VALUE;
+		double probability = 1.0/ids.length;
+		int attacked = start != null ? available - 1 : 0;
+		int k = 0;
+		
+		while(attacked != (available - 1)){
+			if(rand.nextDouble() < probability){
+				attacks[k]++;
+				attacked++;
+			}
+			k = (k+1) % ids.length;
+		}
+		double T = 500;
+		double deltaE = 0;
+		double maxUtil = -Double.MAX_VALUE;
+		int[] maxAttacks = Arrays.copyOf(attacks, attacks.length);
+		int iterations = 0, accepted = 0;
+		//Use a simulated Annealing search to find the 'best' attack combination
+		
+		while(true)
+		{	
+			if(T == 0) break;
+			iterations++;
+			//Create a random permutation of the attack
+			currAttacks = Arrays.copyOf(attacks, attacks.length);
+			for(int i = 0; i <= available/5; i++)
+				randomPermutation(currAttacks, rand);
+			
+			//Simulate the permutation of the attack and get its utility
+			
+			int mark = map.mark();
+			map.simulateAttacks(fromId, currAttacks, ids, MapTopology.ME);
+			currUtil = map.Utility(MapTopology.ME, MapTopology.OPPONENT);
+			map.rollback(mark);
+			
+			
+			deltaE = currUtil - lastUtil;
+			//If the permutation has better utility than before, accept it
+			if(deltaE > 0)
+			{
+				lastUtil = currUtil;
+				attacks = currAttacks;
+				accepted++;
+				if(currUtil > maxUtil){
+					maxUtil = currUtil;
+					maxAttacks = Arrays.copyOf(attacks, attacks.length);
+				}
+			}else {
+				double acceptProb = Math.exp(deltaE/T);
+				if(rand.nextDouble() < acceptProb){
+					lastUtil = currUtil;
+					attacks = currAttacks;
+					accepted++;
+				}
+			}
+			deadline.tick();
+			T = computeT(deadline);
+		}
+		attacks = maxAttacks;
+		if(Metrics.ENABLED)
+		{
+			attackIterations.record(iterations);
+			attackAcceptance.record(iterations == 0 ? 0 : 1000L * accepted / iterations);
+		}
+		
+		//Sanity checks on attacks
+		for(int i = 0; i < attacks.length - 1; i++)
+		{
+			//If there is a low chance to take any region, don't do the attack
+			if(probabilityToTake(attacks[i],map.getRegion(ids[i]).getArmies()) < 0.35)
+			{
+				attacks[attacks.length - 1] += attacks[i];
+				attacks[i] = 0;
+			}
+		}
+		
+		//Try to make other attacks which are close to being successful be successful
+		boolean attackMade = false;
+		for(int i = 0; i < attacks.length - 1; i++)
+		{
+			if(attacks[i] != 0)
+			{
+				//If we can take a region with greater than 0.6125 chance, make the attack
+				if(probabilityToTake(attacks[i],map.getRegion(ids[i]).getArmies()) > 0.6125)
+				{
+					attackMade = true;
+				}
+				else
+				{
+					//Otherwise, if we have enough remaining armies to make the attack, take it
+					if(probabilityToTake(attacks[i] + attacks[attacks.length - 1], map.getRegion(ids[i]).getArmies()) > 0.6125)
+					{
+						//Give just enough armies to pass 0.6125 threshold
+						int needed = CombatOdds.minAttackers(map.getRegion(ids[i]).getArmies(), 0.6125) - attacks[i];
+						attacks[i] += needed;
+						attacks[attacks.length - 1] -= needed;
+						attackMade = true;
+					}
+					else
+					{
+						//If we don't have a good chance of taking even with extra armies, don't attack
+						attacks[attacks.length - 1] += attacks[i];
+						attacks[i] = 0;
+					}
+				}
+			}
+		}
+		
+		//If armies are leftover, make more attacks if we can attack with >0.6125 chance of winning
+		if(attacks[attacks.length - 1] > 0)
+		{
+			for(int i = 0; i < attacks.length - 1; i++)
+			{
+				//If we have enough leftover armies to make this attack, take it
+				if(attacks[i] == 0 && probabilityToTake(attacks[attacks.length - 1], map.getRegion(ids[i]).getArmies()) > 0.6125)
+				{
+					//Give just enough armies to pass 0.6125 threshold
+					int needed = CombatOdds.minAttackers(map.getRegion(ids[i]).getArmies(), 0.6125) - attacks[i];
+					attacks[i] += needed;
+					attacks[attacks.length - 1] -= needed;
+					attackMade = true;
+				}
+			}
+		}
+		
+		//Distribute remaining armies if an attack was made and armies are leftover - go all in
+		if(attackMade && attacks[attacks.length - 1] > 0)
+		{
+			int index = 0;
+			while(attacks[attacks.length - 1] > 0)
+			{
+				if(attacks[index] > 0)
+				{
+					attacks[index]++;
+					attacks[attacks.length - 1]--;
+				}
+				index = (index + 1) % (attacks.length - 1);
+			}
+		}
+		
+		return attacks;
+	}
+	
+	/**
+	 * One region's attack search, run on the search pool. It works on its own copy
+	 * of the map, so searches from different regions never share state.
+	 */
+	private static final class AttackSearch implements Callable<int[]> {
+		
+		final Map source;
+		final int fromId;
+		final int[] ids;
+		final Random rand;
+		final int round; //for the search's Flight Recorder event
+		final TranspositionTable plans; //only read, the deployment search stored them
+		long share; //milliseconds this search may take, if the turn has that long left
+		Deadline turn;
+		long allocated; //bytes the search allocated, while metrics are on
+		
+		AttackSearch(Map source, int fromId, int[] ids, Random rand, int round, TranspositionTable plans)
+		{
+			this.source = source;
+			this.fromId = fromId;
+			this.ids = ids;
+			this.rand = rand;
+			this.round = round;
+			this.plans = plans;
+		}
+		
+		void setBudget(long share, Deadline turn)
+		{
+			this.share = share;
+			this.turn = turn;
+		}
+		
+		@Override
+		public int[] call()
+		{
+			AttackSearchEvent event = new AttackSearchEvent();
+			event.begin();
+			Deadline deadline = new Deadline(Math.min(share, turn.remainingMillis()));
+			long startBytes = Metrics.allocatedBytes();
+			int from = source.getRegionIndex(fromId);
+			int[] start = cachedPlan(plans.probe(planKey(source, from, round)), ids.length, source.getRegion(fromId).getArmies() - 1);
+			int[] attacks = planAttacks(source.getMapCopy(), fromId, ids, deadline, rand, start);
+			allocated = Metrics.allocatedBytes() - startBytes;
+			if(event.shouldCommit())
+			{
+				event.round = round;
+				event.regionId = fromId;
+				event.targets = ids.length - 1;
+				event.iterations = deadline.getTicks();
+				for(int i = 0; i < attacks.length - 1; i++)
+				{
+					if(attacks[i] > 0)
+					{
+						event.attacks++;
+						event.armiesSent += attacks[i];
+					}
+				}
+				event.commit();
+			}
+			return attacks;
+		}
+	}
+	
 	//note that "expected" may not be the best term, as it doesn't actually take into account probability 
 	//except to include a region after attack
 	/**
 	 * 
 	 * @param state botstate
-	 * @param visible bots
+	 * @param vis the map to evaluate
+	 * @param mapCopy a copy of vis to simulate on, its state is overwritten
 	 * @param myName playerName
+	 * @param rand the calling search's random number source
 	 * @return
 	 */
-	private double expectedUtilityAfter(BotState state, Map vis, String myName){
+	private double expectedUtilityAfter(BotState state, Map vis, Map mapCopy, String myName, Random rand){
+		int round = state.getRoundNumber();
+		long key = utilityKey(vis, round);
+		TranspositionTable.Entry seen = utilities.probe(key); //the annealing often comes back to a deployment
+		if(seen != null)
+			return seen.utility;
+		UtilityEvaluationEvent event = new UtilityEvaluationEvent();
+		event.begin();
+		long iterations = 0;
+		int planned = 0; //regions attacked from, whether searched or found in plans
 		ArrayList<AttackTransferMove> attackTransferMoves = new ArrayList<AttackTransferMove>();
-		Map mapCopy = vis.getMapCopy();
-		String opponentName = state.getOpponentPlayerName();
+		mapCopy.copyStateFrom(vis);
 		for(Region fromRegion : mapCopy.getRegions())
 		{
-			if(fromRegion.ownedByPlayer(myName)) //Do an attack or transfer
+			if(fromRegion.ownedBy(MapTopology.ME)) //Do an attack or transfer
 			{
 				//Attack
 				if(fromRegion.isBorder() && fromRegion.getArmies() > 1){ 
 					
-					//get list of regions I can attack
-					ArrayList<Region> attackable = new ArrayList<Region>();
-					for(int i = 0; i < fromRegion.getNeighbors().size(); i++){
-						Region current = fromRegion.getNeighbors().get(i);
-						if(!current.getPlayerName().equals(myName)){
-							attackable.add(current);
-						}
-					}
-					attackable.add(fromRegion);
-					
-					//set up int []'s for each of id's and planned attacks
+					//get the ids of the regions I can attack
 					int fromId = fromRegion.getId();
-					int[] ids = new int[attackable.size()];
-					String[] names = new String[ids.length];
-					int[] attacks = new int[ids.length];
-					int[] defenders = new int[ids.length];
-					int totalOnAttacker = fromRegion.getArmies();
-					//set up ids, playernames, and defenders
-					for(int i = 0; i < ids.length; i++){
-						ids[i] = attackable.get(i).getId();
-						names[i] = attackable.get(i).getPlayerName();
-						defenders[i] = attackable.get(i).getArmies();
+					int[] ids = attackTargets(mapCopy, fromRegion);
+					planned++;
+					
+					//a deployment elsewhere leaves this region's plan as it was
+					long planKey = planKey(mapCopy, fromRegion.getIndex(), round);
+					int[] attacks = cachedPlan(plans.probe(planKey), ids.length, fromRegion.getArmies() - 1);
+					if(attacks != null)
+					{
+						takeAttacks(attackTransferMoves, myName, fromRegion, ids, attacks, state);
+						continue;
 					}
+					attacks = new int[ids.length];
 					
 					//set up initial configuration of attacks
 					
@@ -522,7 +724,7 @@ public class BotStarter implements Bot
 					int k = 0;
 					
 					while(attacked != (fromRegion.getArmies() - 1)){
-						if(Math.random() < probability){
+						if(rand.nextDouble() < probability){
 							attacks[k]++;
 							attacked++;
 						}
@@ -532,18 +734,20 @@ public class BotStarter implements Bot
 					double maxUtil = -Double.MAX_VALUE;
 					
 					//Use a simulated annealing search to find the 'best' attack combination
+					iterations += 250;
 					for(int i = 0; i < 250; i++)
 					{	
 						//Create a random permutation of the attack
 						currAttacks = Arrays.copyOf(attacks, attacks.length);
 						
 						for(int l = 0; l <= fromRegion.getArmies()/2; l++)
-							randomPermutation(currAttacks);
+							randomPermutation(currAttacks, rand);
 						
 						//Simulate the permutation of the attack and get its utility
-						mapCopy.simulateAttacks(fromId, currAttacks, ids, myName);
-						currUtil = mapCopy.Utility(myName, opponentName);
-						mapCopy.undoSimulation(fromId, currAttacks, defenders, ids, names, totalOnAttacker);
+						int mark = mapCopy.mark();
+						mapCopy.simulateAttacks(fromId, currAttacks, ids, MapTopology.ME);
+						currUtil = mapCopy.Utility(MapTopology.ME, MapTopology.OPPONENT);
+						mapCopy.rollback(mark);
 						
 						
 						//If the permutation has better utility than before, accept it
@@ -556,7 +760,7 @@ public class BotStarter implements Bot
 								maxAttacks = Arrays.copyOf(attacks, attacks.length);
 							}
 						}else {
-							if(Math.random() > i/240.0){
+							if(rand.nextDouble() > i/240.0){
 								lastUtil = currUtil;
 								attacks=currAttacks;
 							}
@@ -592,11 +796,9 @@ public class BotStarter implements Bot
 								if(probabilityToTake(attacks[i] + attacks[attacks.length - 1], state.getVisibleMap().getRegion(ids[i]).getArmies()) > 0.6125)
 								{
 									//Give just enough armies to pass 0.6125 threshold
-									while(probabilityToTake(attacks[i], state.getVisibleMap().getRegion(ids[i]).getArmies()) <= 0.6125)
-									{
-										attacks[i]++;
-										attacks[attacks.length - 1]--;
-									}
+									int needed = CombatOdds.minAttackers(state.getVisibleMap().getRegion(ids[i]).getArmies(), 0.6125) - attacks[i];
+									attacks[i] += needed;
+									attacks[attacks.length - 1] -= needed;
 									attackMade = true;
 								}
 								else
@@ -627,14 +829,8 @@ public class BotStarter implements Bot
 					
 					
 					
-					//Take the attack actions decided
-					for(int i = 0; i < attacks.length; i++)
-					{
-						if(fromRegion.getId() != ids[i] && attacks[i] > 0)
-						{
-							attackTransferMoves.add(new AttackTransferMove(myName, fromRegion, state.getVisibleMap().getRegion(ids[i]), attacks[i]));						
-						}
-					}
+					plans.store(planKey, 0, attacks, 250, round);
+					takeAttacks(attackTransferMoves, myName, fromRegion, ids, attacks, state);
 				}
 			}
 		}
@@ -647,20 +843,84 @@ public class BotStarter implements Bot
 		
 		for(int i = 0;i<attackTransferMoves.size(); i++){
 			AttackTransferMove move = attackTransferMoves.get(i);
-			String playerName = move.getToRegion().getPlayerName();
-			mapCopy.getRegion(move.getToRegion().getId()).setPlayerName(myName);
-			sum += (mapCopy.Utility(myName, opponentName)) * probabilityToTake(move.getArmies(), move.getToRegion().getArmies()); //(new-old)*probNew; expected gain
-			//return to previous state 
-			mapCopy.getRegion(move.getToRegion().getId()).setPlayerName(playerName);
+			double utilityIfTaken = mapCopy.Utility(MapTopology.ME, MapTopology.OPPONENT) + mapCopy.utilityDelta(mapCopy.getRegion(move.getToRegion().getId()), MapTopology.ME);
+			sum += utilityIfTaken * probabilityToTake(move.getArmies(), move.getToRegion().getArmies()); //(new-old)*probNew; expected gain
 		}
 		
-		
+		utilities.store(key, sum, null, 250 * planned, round);
+		if(event.shouldCommit())
+		{
+			event.round = round;
+			event.iterations = iterations;
+			event.attacks = attackTransferMoves.size();
+			event.utility = sum;
+			event.commit();
+		}
 		return sum;
 	}
 	
+	/**
+	 * Adds the attacks decided for one region to a list of moves
+	 * @param attacks the armies to send to each of ids, the last entry being those staying behind
+	 */
+	private static void takeAttacks(ArrayList<AttackTransferMove> moves, String myName, Region fromRegion, int[] ids, int[] attacks, BotState state)
+	{
+		for(int i = 0; i < attacks.length; i++)
+		{
+			if(fromRegion.getId() != ids[i] && attacks[i] > 0)
+			{
+				moves.add(new AttackTransferMove(myName, fromRegion, state.getVisibleMap().getRegion(ids[i]), attacks[i]));
+			}
+		}
+	}
+	
+	/**
+	 * The key of a state's utility this round. The utility comes from this round's plans, so
+	 * the same state in another round is a different key, and the age the table replaces by
+	 * is the round the key belongs to. Army counts are exact, as bucketed ones would make
+	 * close deployments look alike.
+	 * @return a key for utilities, see TranspositionTable
+	 */
+	static long utilityKey(Map map, int round)
+	{
+		return map.getExactStateHash() ^ round * 0x9E3779B97F4A7C15L;
+	}
+	
+	/**
+	 * The key of the attacks planned from one region this round. A plan depends on the region,
+	 * its neighbors and how much of their SuperRegions are held, which only changes between rounds.
+	 * @param index the dense index of the region attacking
+	 * @return a key for plans, see TranspositionTable
+	 */
+	static long planKey(Map map, int index, int round)
+	{
+		return map.getExactNeighborhoodHash(index) ^ PLAN_SALT ^ round * 0x9E3779B97F4A7C15L;
+	}
+	
+	/**
+	 * @param entry a plan found in the table, or null
+	 * @param length the number of targets plus one for the armies staying behind
+	 * @param armies the armies the region can move
+	 * @return a copy of the plan, or null if there was none or it does not fit, which only
+	 * 		   a colliding key can give
+	 */
+	static int[] cachedPlan(TranspositionTable.Entry entry, int length, int armies)
+	{
+		if(entry == null || entry.getPlanLength() != length || entry.getPlanTotal() != armies)
+			return null;
+		return entry.getPlan();
+	}
+	
+	/**
+	 * @param attackers number of armies attacking
+	 * @param defenders number of armies defending
+	 * @return the estimated probability the attack takes the region, see CombatOdds
+	 */
 	public static double probabilityToTake(double attackers, double defenders){
-		double probability = 0;
+		if(attackers == (int) attackers && defenders == (int) defenders)
+			return CombatOdds.probabilityToTake((int) attackers, (int) defenders);
 		
+		double probability = 0;
 		//if they have less than .84*(.6*attackers), then we take them for sure => .504 * attackers = #certain defender death
 		if(defenders< attackers*.504){
 			probability = 1;
@@ -672,62 +932,25 @@ public class BotStarter implements Bot
 		//now we gotta find the legit probability...because there is a chance but its not certain...
 		else{
 			int need = (int) ((defenders - .504*attackers)/.16 ) ;
-			if(need <= attackers)
-			probability = 1 - binomialcdf(need, (int) attackers, .6);
-			
+			if(need < (int) attackers)
+				probability = CombatOdds.upperTail((int) attackers, .6)[need + 1];
 		}
 		return probability;
 	}
 	
-	public static double binomialcdf(int numCorrect, int numTrials, double probValue){
-		if(numCorrect == numTrials) return binomialDist(3,3,.6);
-		double total = 0;
-		for(int i = 0; i <= numCorrect; i++){
-			total+=binomialDist(i, numTrials, probValue);
-		}
-		return total;
-	}
-	
-	public static double binomialDist(int numCorrect, int numTrials, double probValue)
-	{
-		BigInteger ntF = factorial(numTrials);
-		BigInteger denom = factorial(numCorrect).multiply(factorial(numTrials - numCorrect));
-
-		BigDecimal ntFBD = new BigDecimal(ntF);
-		BigDecimal denomBD = new BigDecimal(denom);
-		BigDecimal quotient = ntFBD.divide(denomBD, 40, RoundingMode.HALF_UP);
-
-		BigDecimal restBD = BigDecimal.valueOf(Math.pow(probValue, numCorrect) * Math.pow((1d - probValue), numTrials - numCorrect));
-		return(quotient.multiply(restBD).doubleValue());
-	}
-	
-	/**
-	 * Compute factorial of n
-	 */
-	public static BigInteger factorial(int n)
-	{
-		BigInteger res = BigInteger.ONE;
-
-		for (int i = n; i>1; i--)
-		{
-			res = res.multiply(BigInteger.valueOf(i));
-		}
-		return(res);
-	}
-	
 	/**
 	 * 
-	 * @param startTime time turn started
-	 * @return the value of T for current time
+	 * @param deadline the deadline of the search
+	 * @return the value of T for current time, 0 once the deadline has passed
 	 */
-	public static double computeT(long startTime, int time){
-		long current = System.nanoTime();
-		long diff = (long) ((current - startTime ) / 1000000.0);
-        if(diff > time){
+	public static double computeT(Deadline deadline){
+		long diff = deadline.elapsedMillis();
+		long time = deadline.budgetMillis();
+        if(diff >= time){
         	return 0;
         }
         if(diff != 0)
-        	return -1 + (time/diff); 
+        	return -1 + ((double) time/diff); //in whole numbers this hit 0 halfway through the budget
         else return 1; //it happened SUPER quick
 	}
 	
@@ -736,7 +959,7 @@ public class BotStarter implements Bot
 	/** Subtracts one from a random array element and adds one to another
 	 * @param arr The array to permutate
 	 */
-	public static void randomPermutation(int[] arr)
+	public static void randomPermutation(int[] arr, Random rand)
 	{
 		//Make sure at least one element is nonzero
 		boolean nonzero = false;
@@ -746,9 +969,6 @@ public class BotStarter implements Bot
 		}
 		if(!nonzero || arr.length <= 1) return;
 		
-		//Create a random number stream
-		Random rand = new Random(System.currentTimeMillis());
-		
 		//Get an index to move from, making sure that it is at least one
 		int from, to;
 		do
@@ -770,18 +990,11 @@ public class BotStarter implements Bot
 		
 	}
 	
-	public static void applyDeployments(Map map, int[] deployments, int[] ids){
-		for(int i = 0; i < ids.length; i++){
-			map.getRegion(ids[i]).setArmies(map.getRegion(ids[i]).getArmies() + deployments[i]);
-		}
-	}
-	public static void deapplyDeployments(Map map, int[] deployments, int[] ids){
-		for(int i = 0; i < ids.length; i++){
-			map.getRegion(ids[i]).setArmies(map.getRegion(ids[i]).getArmies() - deployments[i]);
-		}
-	}
 	public static void main(String[] args)
 	{
+		for(int i = 0; i < args.length - 1; i++)
+			if(args[i].equals("--seed")) //replay a game: same seed and input give the same moves
+				SearchRandom.setReplaySeed(Long.parseLong(args[i + 1]));
 		BotParser parser = new BotParser(new BotStarter());
 		parser.run();
 	}
@@ -16,8 +16,10 @@
 package bot;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 
 import map.Map;
+import map.MapTopology;
 import map.Region;
 import map.SuperRegion;
 
@@ -32,6 +34,8 @@ public class BotState {
 	
 	private final Map fullMap = new Map(); //This map is known from the start, contains all the regions and how they are connected, doesn't change after initialization
 	private Map visibleMap; //This map represents everything the player can see, updated at the end of each round.
+	private final BitSet updatedRegions = new BitSet(); //regions listed in the update_map being read
+	private final BitSet changedRegions = new BitSet(); //regions whose owner, armies or visibility the last update_map changed
 	
 	private ArrayList<Region> pickableStartingRegions; //list of regions the player can choose the start from
 	private ArrayList<Region> wastelands; //wastelands, i.e. neutral regions with a larger amount of armies on them. Given before the picking of starting regions
@@ -53,18 +57,30 @@ public class BotState {
 	
 	public void updateSettings(String key, String[] parts)
 	{
-		String value;
-
 		if(key.equals("starting_regions") && parts.length > 3) {
 			setPickableStartingRegions(parts);
 			return;
 		} 
-		value = parts[2];
+		updateSetting(key, parts[2]);
+	}
 
+	/**
+	 * Applies a single-valued settings line
+	 * @param key : the setting's name
+	 * @param value : its value as given by the engine
+	 */
+	public void updateSetting(String key, String value)
+	{
 		if(key.equals("your_bot")) //bot's own name
-			myName = parts[2];
+		{
+			myName = value;
+			fullMap.getTopology().setPlayerName(MapTopology.ME, value); //searches compare owner codes, not names
+		}
 		else if(key.equals("opponent_bot")) //opponent's name
+		{
 			opponentName = value;
+			fullMap.getTopology().setPlayerName(MapTopology.OPPONENT, value);
+		}
 		else if(key.equals("max_rounds"))
 			maxRounds = Integer.parseInt(value);
 		else if(key.equals("timebank"))
@@ -72,26 +88,31 @@ public class BotState {
 		else if(key.equals("time_per_move"))
 			timePerMove = Long.parseLong(value);
 		else if(key.equals("starting_armies")) 
-		{
-			startingArmies = Integer.parseInt(value);
-			roundNumber++; //next round
-		}
+			setStartingArmies(Integer.parseInt(value));
+	}
+
+	/**
+	 * Sets the armies we may place this round, which also starts the next round
+	 */
+	public void setStartingArmies(int armies)
+	{
+		startingArmies = armies;
+		roundNumber++; //next round
 	}
 	
 	//initial map is given to the bot with all the information except for player and armies info
 	public void setupMap(String[] mapInput)
 	{
-		int i, regionId, superRegionId, wastelandId, reward;
+		int i;
 		
 		if(mapInput[1].equals("super_regions"))
 		{
 			for(i=2; i<mapInput.length; i++)
 			{
 				try {
-					superRegionId = Integer.parseInt(mapInput[i]);
+					int superRegionId = Integer.parseInt(mapInput[i]);
 					i++;
-					reward = Integer.parseInt(mapInput[i]);
-					fullMap.add(new SuperRegion(superRegionId, reward));
+					addSuperRegion(superRegionId, Integer.parseInt(mapInput[i]));
 				}
 				catch(Exception e) {
 					System.err.println("Unable to parse SuperRegions");
@@ -103,11 +124,9 @@ public class BotState {
 			for(i=2; i<mapInput.length; i++)
 			{
 				try {
-					regionId = Integer.parseInt(mapInput[i]);
+					int regionId = Integer.parseInt(mapInput[i]);
 					i++;
-					superRegionId = Integer.parseInt(mapInput[i]);
-					SuperRegion superRegion = fullMap.getSuperRegion(superRegionId);
-					fullMap.add(new Region(regionId, superRegion));
+					addRegion(regionId, Integer.parseInt(mapInput[i]));
 				}
 				catch(Exception e) {
 					System.err.println("Unable to parse Regions " + e.getMessage());
@@ -119,28 +138,25 @@ public class BotState {
 			for(i=2; i<mapInput.length; i++)
 			{
 				try {
-					Region region = fullMap.getRegion(Integer.parseInt(mapInput[i]));
+					int regionId = Integer.parseInt(mapInput[i]);
 					i++;
 					String[] neighborIds = mapInput[i].split(",");
 					for(int j=0; j<neighborIds.length; j++)
-					{
-						Region neighbor = fullMap.getRegion(Integer.parseInt(neighborIds[j]));
-						region.addNeighbor(neighbor);
-					}
+						addNeighbor(regionId, Integer.parseInt(neighborIds[j]));
 				}
 				catch(Exception e) {
 					System.err.println("Unable to parse Neighbors " + e.getMessage());
 				}
 			}
+			endNeighbors();
 		}
 		else if(mapInput[1].equals("wastelands"))
 		{
-			wastelands = new ArrayList<Region>();
+			clearWastelands();
 			for(i=2; i<mapInput.length; i++)
 			{
 				try {
-					wastelandId = Integer.parseInt(mapInput[i]);
-					wastelands.add(fullMap.getRegion(wastelandId));
+					addWasteland(Integer.parseInt(mapInput[i]));
 				}
 				catch(Exception e) {
 					System.err.println("Unable to parse wastelands " + e.getMessage());
@@ -148,94 +164,212 @@ public class BotState {
 			}
 		}
 	}
+
+	/*
+	 * Token callbacks. ProtocolReader feeds the engine's input to these one entry at
+	 * a time instead of splitting whole lines into Strings first; the String[]
+	 * methods above and below are kept for code that already has split lines.
+	 */
+
+	public void addSuperRegion(int superRegionId, int reward)
+	{
+		fullMap.add(new SuperRegion(superRegionId, reward));
+	}
+
+	public void addRegion(int regionId, int superRegionId)
+	{
+		SuperRegion superRegion = fullMap.getSuperRegion(superRegionId);
+		if(superRegion == null)
+			System.err.println("Unable to parse Regions: unknown SuperRegion " + superRegionId);
+		else
+			fullMap.add(new Region(regionId, superRegion));
+	}
+
+	public void addNeighbor(int regionId, int neighborId)
+	{
+		Region region = fullMap.getRegion(regionId);
+		Region neighbor = fullMap.getRegion(neighborId);
+		if(region == null || neighbor == null)
+			System.err.println("Unable to parse Neighbors: unknown Region " + (region == null ? regionId : neighborId));
+		else
+			region.addNeighbor(neighbor);
+	}
+
+	/**
+	 * Called once the neighbors line has been read. No more links will be added,
+	 * so the adjacency and distance tables are built now rather than during the first move.
+	 */
+	public void endNeighbors()
+	{
+		fullMap.getTopology().getAdjacency();
+		fullMap.getTopology().getDistances();
+	}
+
+	public void clearWastelands()
+	{
+		wastelands = new ArrayList<Region>();
+	}
+
+	public void addWasteland(int regionId)
+	{
+		Region wasteland = fullMap.getRegion(regionId);
+		if(wasteland == null)
+			System.err.println("Unable to parse wastelands: unknown Region " + regionId);
+		else
+			wastelands.add(wasteland);
+	}
 	
 	//regions from wich a player is able to pick his preferred starting region
 	public void setPickableStartingRegions(String[] input)
 	{
-		pickableStartingRegions = new ArrayList<Region>();
+		clearPickableStartingRegions();
 		for(int i=2; i<input.length; i++)
 		{
-			int regionId;
 			try {
-				regionId = Integer.parseInt(input[i]);
-				Region pickableRegion = fullMap.getRegion(regionId);
-				pickableStartingRegions.add(pickableRegion);
+				addPickableStartingRegion(Integer.parseInt(input[i]));
 			}
 			catch(Exception e) {
 				System.err.println("Unable to parse pickable regions " + e.getMessage());
 			}
 		}
 	}
+
+	public void clearPickableStartingRegions()
+	{
+		pickableStartingRegions = new ArrayList<Region>();
+	}
+
+	public void addPickableStartingRegion(int regionId)
+	{
+		Region pickableRegion = fullMap.getRegion(regionId);
+		if(pickableRegion == null)
+			System.err.println("Unable to parse pickable regions: unknown Region " + regionId);
+		else
+			pickableStartingRegions.add(pickableRegion);
+	}
 	
 	//visible regions are given to the bot with player and armies info
 	public void updateMap(String[] mapInput)
 	{
-		visibleMap = fullMap.getMapCopy();
+		beginMapUpdate();
 		for(int i=1; i<mapInput.length; i++)
 		{
 			try {
-				Region region = visibleMap.getRegion(Integer.parseInt(mapInput[i]));
+				int regionId = Integer.parseInt(mapInput[i]);
 				String playerName = mapInput[i+1];
 				int armies = Integer.parseInt(mapInput[i+2]);
-				
-				region.setPlayerName(playerName);
-				region.setArmies(armies);
+				updateRegion(regionId, playerName, armies);
 				i += 2;
 			}
 			catch(Exception e) {
 				System.err.println("Unable to parse Map Update " + e.getMessage());
 			}
 		}
-		ArrayList<Region> unknownRegions = new ArrayList<Region>();
-		
-		//remove regions which are unknown.
-		for(Region region : visibleMap.regions)
-			if(region.getPlayerName().equals("unknown"))
-				unknownRegions.add(region);
-		for(Region unknownRegion : unknownRegions)
-			visibleMap.getRegions().remove(unknownRegion);				
+		endMapUpdate();
+	}
+
+	/**
+	 * Starts reading an update_map line. The visible map is kept from round to
+	 * round and only the differences are applied to it.
+	 */
+	public void beginMapUpdate()
+	{
+		if(visibleMap == null)
+		{
+			visibleMap = fullMap.getMapCopy();
+			visibleMap.setTrackedPlayer(MapTopology.ME);
+			changedRegions.set(0, fullMap.getTopology().getRegionCount()); //nothing was known before
+		}
+		else
+			changedRegions.clear();
+		updatedRegions.clear();
+	}
+
+	public void updateRegion(int regionId, String playerName, int armies)
+	{
+		int index = visibleMap.getTopology().getRegionIndex(regionId);
+		if(index == -1)
+		{
+			System.err.println("Unable to parse Map Update: unknown Region " + regionId);
+			return;
+		}
+		if(!playerName.equals("unknown"))
+			updatedRegions.set(index);
+		if(visibleMap.setRegionState(index, playerName, armies))
+			changedRegions.set(index);
+	}
+
+	/**
+	 * Finishes an update_map line: the regions it did not list, or listed as
+	 * unknown, are hidden and forgotten.
+	 */
+	public void endMapUpdate()
+	{
+		int count = visibleMap.getTopology().getRegionCount();
+		for(int index = 0; index < count; index++)
+		{
+			if(!updatedRegions.get(index) && (visibleMap.setRegionState(index, "unknown", 0) || visibleMap.isVisible(index)))
+				changedRegions.set(index);
+		}
+		visibleMap.setVisibleRegions(updatedRegions);
+	}
+
+	/**
+	 * @return the dense indices of the regions whose owner, armies or visibility
+	 * 		   changed with the last update_map, for caches to throw away what they
+	 * 		   knew about them. Every region counts as changed after the first one.
+	 */
+	public BitSet getChangedRegions(){
+		return changedRegions;
 	}
 
 	//Parses a list of the opponent's moves every round. 
 	//Clears it at the start, so only the moves of this round are stored.
 	public void readOpponentMoves(String[] moveInput)
 	{
-		opponentMoves.clear();
+		clearOpponentMoves();
 		for(int i=1; i<moveInput.length; i++)
 		{
 			try {
-				Move move;
 				if(moveInput[i+1].equals("place_armies")) {
-					Region region = visibleMap.getRegion(Integer.parseInt(moveInput[i+2]));
-					String playerName = moveInput[i];
-					int armies = Integer.parseInt(moveInput[i+3]);
-					move = new PlaceArmiesMove(playerName, region, armies);
+					addOpponentPlaceArmies(moveInput[i], Integer.parseInt(moveInput[i+2]), Integer.parseInt(moveInput[i+3]));
 					i += 3;
 				}
 				else if(moveInput[i+1].equals("attack/transfer")) {
-					Region fromRegion = visibleMap.getRegion(Integer.parseInt(moveInput[i+2]));
-					if(fromRegion == null) //might happen if the region isn't visible
-						fromRegion = fullMap.getRegion(Integer.parseInt(moveInput[i+2]));
-
-					Region toRegion = visibleMap.getRegion(Integer.parseInt(moveInput[i+3]));
-					if(toRegion == null) //might happen if the region isn't visible
-						toRegion = fullMap.getRegion(Integer.parseInt(moveInput[i+3]));
-
-					String playerName = moveInput[i];
-					int armies = Integer.parseInt(moveInput[i+4]);
-					move = new AttackTransferMove(playerName, fromRegion, toRegion, armies);
+					addOpponentAttackTransfer(moveInput[i], Integer.parseInt(moveInput[i+2]),
+							Integer.parseInt(moveInput[i+3]), Integer.parseInt(moveInput[i+4]));
 					i += 4;
 				}
-				else { //never happens
-					continue;
-				}
-				opponentMoves.add(move);
 			}
 			catch(Exception e) {
 				System.err.println("Unable to parse Opponent moves " + e.getMessage());
 			}
 		}
 	}
+
+	public void clearOpponentMoves()
+	{
+		opponentMoves.clear();
+	}
+
+	public void addOpponentPlaceArmies(String playerName, int regionId, int armies)
+	{
+		Region region = visibleMap.getRegion(regionId);
+		opponentMoves.add(new PlaceArmiesMove(playerName, region, armies));
+	}
+
+	public void addOpponentAttackTransfer(String playerName, int fromId, int toId, int armies)
+	{
+		Region fromRegion = visibleMap.getRegion(fromId);
+		if(fromRegion == null) //might happen if the region isn't visible
+			fromRegion = fullMap.getRegion(fromId);
+
+		Region toRegion = visibleMap.getRegion(toId);
+		if(toRegion == null) //might happen if the region isn't visible
+			toRegion = fullMap.getRegion(toId);
+
+		opponentMoves.add(new AttackTransferMove(playerName, fromRegion, toRegion, armies));
+	}
 	
 	public String getMyPlayerName(){
 		return myName;
@@ -253,6 +387,18 @@ public class BotState {
 		return roundNumber;
 	}
 	
+	public int getMaxRounds(){
+		return maxRounds;
+	}
+	
+	public long getTotalTimebank(){
+		return totalTimebank;
+	}
+	
+	public long getTimePerMove(){
+		return timePerMove;
+	}
+	
 	public Map getVisibleMap(){
 		return visibleMap;
 	}
@@ -0,0 +1,205 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bot;
+
+import java.util.Arrays;
+
+/**
+ * Odds of taking a region, as estimated by BotStarter.probabilityToTake, served
+ * from tables instead of being recomputed on every call.
+ *
+ * The [attackers][defenders] table is built lazily in double precision and grown
+ * when a larger attack is asked about. The tables are immutable once published,
+ * so any number of search threads can read them without locking.
+ */
+public final class CombatOdds {
+
+	private static final double KILL_CHANCE = 0.6; //chance each attacking army kills a defender
+	private static final double LUCK = 0.16;       //share of the kills decided by luck
+	private static final double SURE_KILLS = .504;  //KILL_CHANCE * (1 - LUCK), kills per attacker regardless of luck
+
+	private static final int MAX_CACHED_ATTACKERS = 2048; //larger attacks are computed directly
+
+	/* rows[a][d] is the chance a attackers take d defenders. Rows stop at the
+	 * largest d with a nonzero chance, anything beyond is 0.
+	 */
+	private static volatile double[][] rows = new double[0][];
+
+	/* minimum attackers tables, one per probability threshold asked for
+	 */
+	private static volatile Threshold[] thresholds = new Threshold[0];
+
+	private CombatOdds() {}
+
+	/**
+	 * @param attackers : number of armies attacking
+	 * @param defenders : number of armies defending
+	 * @return : the estimated probability the attack takes the region
+	 */
+	public static double probabilityToTake(int attackers, int defenders)
+	{
+		if(attackers <= 0)
+			return defenders < 0 ? 1 : 0;
+		if(attackers > MAX_CACHED_ATTACKERS)
+			return computeRow(attackers, defenders)[Math.max(0, defenders)];
+		double[][] table = rows;
+		if(attackers >= table.length)
+			table = grow(attackers);
+		double[] row = table[attackers];
+		if(defenders < 0)
+			return 1;
+		if(defenders >= row.length)
+			return 0;
+		return row[defenders];
+	}
+
+	/**
+	 * @param defenders : number of armies defending
+	 * @param probability : the chance of taking the region that must be exceeded
+	 * @return : the fewest attackers whose probabilityToTake against defenders is greater than probability.
+	 * 			 The odds never decrease as attackers are added, so any larger attack also exceeds it.
+	 */
+	public static int minAttackers(int defenders, double probability)
+	{
+		if(probability >= 1)
+			throw new IllegalArgumentException("No attack has a chance above " + probability);
+		if(defenders < 0)
+			defenders = 0;
+		Threshold threshold = threshold(probability);
+		if(defenders >= threshold.minAttackers.length)
+			threshold = growThreshold(probability, defenders);
+		return threshold.minAttackers[defenders];
+	}
+
+	/**
+	 * The estimate itself: a fixed .504 kills per attacker, plus up to .16 more per
+	 * attacker depending on how many of the attackers' 60% rolls succeed.
+	 * @return : the chance of taking the region for every defender count from 0 to the
+	 * 			 largest with a nonzero chance
+	 */
+	static double[] computeRow(int attackers, int minLength)
+	{
+		int last = 0; //more defenders than this can never be taken
+		while(last + 1 <= (attackers * SURE_KILLS + LUCK * attackers) + 1)
+			last++;
+		double[] row = new double[Math.max(last + 1, minLength + 1)];
+		double[] tail = upperTail(attackers, KILL_CHANCE);
+		for(int d = 0; d <= last; d++)
+		{
+			if(d < attackers * SURE_KILLS)
+				row[d] = 1;
+			else if(d > (attackers * SURE_KILLS + LUCK * attackers) + 1)
+				row[d] = 0;
+			else
+			{
+				int need = (int) ((d - SURE_KILLS * attackers) / LUCK);
+				row[d] = need < attackers ? tail[need + 1] : 0; //more than need of the rolls have to succeed
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * Binomial upper tail computed from the mode outwards, so that no term
+	 * underflows the way (1-p)^n does for large n
+	 * @return : tail[k] = P(X >= k) for X ~ Binomial(n, p), k from 0 to n
+	 */
+	static double[] upperTail(int n, double p)
+	{
+		double[] weight = new double[n + 1];
+		int mode = Math.min(n, (int) ((n + 1) * p));
+		double ratio = p / (1 - p);
+		weight[mode] = 1;
+		for(int k = mode; k < n; k++)
+			weight[k + 1] = weight[k] * (n - k) / (k + 1) * ratio;
+		for(int k = mode; k > 0; k--)
+			weight[k - 1] = weight[k] * k / (n - k + 1) / ratio;
+
+		double total = 0;
+		for(int k = 0; k <= n; k++)
+			total += weight[k];
+		double[] tail = new double[n + 2];
+		for(int k = n; k >= 0; k--)
+			tail[k] = Math.min(1, tail[k + 1] + weight[k] / total); //rounding must not push it past 1
+		return Arrays.copyOf(tail, n + 1);
+	}
+
+	private static synchronized double[][] grow(int attackers)
+	{
+		double[][] table = rows;
+		if(attackers < table.length) //another thread grew it first
+			return table;
+		int size = Math.min(MAX_CACHED_ATTACKERS + 1, Math.max(attackers + 1, Math.max(64, table.length * 2)));
+		double[][] grown = Arrays.copyOf(table, size);
+		for(int a = table.length; a < size; a++)
+		{
+			grown[a] = computeRow(a, 0);
+			if(a > 0) //an extra attacker never hurts, keep rounding noise from saying otherwise
+				for(int d = 0; d < grown[a - 1].length; d++)
+					grown[a][d] = Math.max(grown[a][d], grown[a - 1][d]);
+		}
+		rows = grown;
+		return grown;
+	}
+
+	private static Threshold threshold(double probability)
+	{
+		Threshold[] known = thresholds;
+		for(int i = 0; i < known.length; i++)
+			if(known[i].probability == probability)
+				return known[i];
+		return growThreshold(probability, 0);
+	}
+
+	private static synchronized Threshold growThreshold(double probability, int defenders)
+	{
+		Threshold[] known = thresholds;
+		int found = -1;
+		for(int i = 0; i < known.length; i++)
+			if(known[i].probability == probability)
+				found = i;
+		if(found != -1 && defenders < known[found].minAttackers.length)
+			return known[found];
+
+		int size = Math.max(defenders + 1, 64);
+		if(found != -1)
+			size = Math.max(size, known[found].minAttackers.length * 2);
+		int[] minAttackers = new int[size];
+		int a = 0;
+		for(int d = 0; d < size; d++) //the odds only grow with attackers, so the answer only grows with defenders
+		{
+			while(probabilityToTake(a, d) <= probability)
+				a++;
+			minAttackers[d] = a;
+		}
+		Threshold threshold = new Threshold(probability, minAttackers);
+		Threshold[] updated = found == -1 ? Arrays.copyOf(known, known.length + 1) : known.clone();
+		updated[found == -1 ? known.length : found] = threshold;
+		thresholds = updated;
+		return threshold;
+	}
+
+	private static final class Threshold {
+		final double probability;
+		final int[] minAttackers; //by defender count
+
+		Threshold(double probability, int[] minAttackers)
+		{
+			this.probability = probability;
+			this.minAttackers = minAttackers;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bot;
+
+/**
+ * The time a search is allowed to run: a whole move request's, handed out by
+ * TurnBudget, or one attack search's share of it. Every search loop calls
+ * tick() once per iteration and cools its temperature by elapsedMillis()
+ * against budgetMillis() (see BotStarter.computeT), stopping when they meet.
+ *
+ * In replay mode (see SearchRandom) the clock is never read: each tick counts
+ * as a fixed slice of a millisecond, so a search always stops at the same
+ * iteration for the same budget.
+ */
+public final class Deadline {
+
+	/* iterations counted as one millisecond when replaying a seed */
+	static final int REPLAY_ITERATIONS_PER_MS = 10;
+
+	private final long start;  //nanoTime when the deadline was created
+	private final long budget; //milliseconds allowed
+	private final boolean virtual;
+	private long ticks;
+
+	/**
+	 * @param budgetMillis the time allowed from now on, in milliseconds
+	 */
+	public Deadline(long budgetMillis)
+	{
+		this.start = System.nanoTime();
+		this.budget = Math.max(0, budgetMillis);
+		this.virtual = SearchRandom.isReplay();
+	}
+
+	/**
+	 * Counts one iteration of the search using this deadline
+	 */
+	public void tick()
+	{
+		ticks++;
+	}
+
+	/**
+	 * @return the number of iterations counted so far
+	 */
+	public long getTicks()
+	{
+		return ticks;
+	}
+
+	/**
+	 * @return the number of milliseconds used so far
+	 */
+	public long elapsedMillis()
+	{
+		if(virtual)
+			return ticks / REPLAY_ITERATIONS_PER_MS;
+		return (System.nanoTime() - start) / 1000000;
+	}
+
+	/**
+	 * @return the number of milliseconds left, never negative
+	 */
+	public long remainingMillis()
+	{
+		return Math.max(0, budget - elapsedMillis());
+	}
+
+	/**
+	 * @return the number of milliseconds this deadline allowed in total
+	 */
+	public long budgetMillis()
+	{
+		return budget;
+	}
+}
@@ -0,0 +1,271 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the engine's commands token by token straight out of a byte buffer.
+ *
+ * Numbers are parsed in place, and words (commands, keywords and player names)
+ * are looked up in a small table of words seen before, so once the first few
+ * rounds are read no Strings are created at all. Tokens are separated by spaces;
+ * numbers may also be separated by commas, as in the neighbors lists.
+ *
+ * The reader never looks past the end of the current line, so it does not block
+ * waiting for the next command while a move is being computed.
+ */
+public final class ProtocolReader {
+
+	private static final int MAX_WORDS = 256; //words remembered, later new words are still returned but not kept
+
+	private final InputStream in;
+	private byte[] buffer = new byte[1 << 16];
+	private int position;
+	private int limit;
+	private boolean lineEnded = true; //True once the newline ending the current line is consumed
+	private boolean comma;            //True if the last number read was followed by a comma
+
+	private String[] words = new String[32];
+	private byte[][] wordBytes = new byte[32][];
+	private int wordCount;
+
+	public ProtocolReader(InputStream in)
+	{
+		this.in = in;
+	}
+
+	/**
+	 * Skips whatever is left of the current line and any blank lines after it.
+	 * @return False once the input has ended
+	 */
+	public boolean nextLine() throws IOException
+	{
+		while(!lineEnded)
+		{
+			int c = peek();
+			if(c == -1)
+				break;
+			position++;
+			if(c == '\n')
+				lineEnded = true;
+		}
+		while(true)
+		{
+			int c = peek();
+			if(c == -1)
+				return false;
+			if(!isSpace(c) && c != '\n')
+				break;
+			position++;
+		}
+		lineEnded = false;
+		return true;
+	}
+
+	/**
+	 * @return True if there is another token on the current line
+	 */
+	public boolean hasMore() throws IOException
+	{
+		int c = skipSpaces();
+		return c != -1 && c != '\n';
+	}
+
+	/**
+	 * @return True if the last number read was followed by a comma, so the list
+	 * 		   it belongs to goes on
+	 */
+	public boolean followedByComma()
+	{
+		return comma;
+	}
+
+	/**
+	 * @return the next number on the current line
+	 * @throws NumberFormatException if the next token is not a number
+	 */
+	public int nextInt() throws IOException
+	{
+		long value = nextLong();
+		if(value != (int) value)
+			throw new NumberFormatException("Number out of range: " + value);
+		return (int) value;
+	}
+
+	/**
+	 * @return the next number on the current line
+	 * @throws NumberFormatException if the next token is not a number or does not fit in a long
+	 */
+	public long nextLong() throws IOException
+	{
+		int c = skipSpaces();
+		boolean negative = c == '-';
+		if(negative)
+		{
+			position++;
+			c = peek();
+		}
+		if(c < '0' || c > '9')
+			throw new NumberFormatException("Expected a number but found " + describe(c));
+		//accumulated negatively, as Long.parseLong does, so that Long.MIN_VALUE can be read
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long value = 0;
+		while(c >= '0' && c <= '9')
+		{
+			int digit = c - '0';
+			if(value < limit / 10 || value * 10 < limit + digit)
+				throw new NumberFormatException("Number out of range for a long");
+			value = value * 10 - digit;
+			position++;
+			c = peek();
+		}
+		if(c != -1 && c != '\n' && c != ',' && !isSpace(c))
+			throw new NumberFormatException("Expected a number but found " + describe(c));
+		comma = c == ',';
+		if(comma)
+			position++;
+		return negative ? value : -value;
+	}
+
+	/**
+	 * @return the next word on the current line, the same String instance every
+	 * 		   time the same word is read
+	 * @throws IllegalStateException if the line has no more tokens
+	 */
+	public String nextWord() throws IOException
+	{
+		int c = skipSpaces();
+		if(c == -1 || c == '\n')
+			throw new IllegalStateException("Expected a word but the line ended");
+		int length = tokenLength();
+		String word = null;
+		for(int i = 0; i < wordCount && word == null; i++)
+			if(matches(wordBytes[i], length))
+				word = words[i];
+		if(word == null)
+		{
+			word = new String(buffer, position, length, StandardCharsets.US_ASCII);
+			remember(word);
+		}
+		position += length;
+		return word;
+	}
+
+	private boolean matches(byte[] word, int length)
+	{
+		if(word.length != length)
+			return false;
+		for(int i = 0; i < length; i++)
+			if(word[i] != buffer[position + i])
+				return false;
+		return true;
+	}
+
+	private void remember(String word)
+	{
+		if(wordCount == MAX_WORDS)
+			return;
+		if(wordCount == words.length)
+		{
+			words = Arrays.copyOf(words, wordCount * 2);
+			wordBytes = Arrays.copyOf(wordBytes, wordCount * 2);
+		}
+		words[wordCount] = word;
+		wordBytes[wordCount] = Arrays.copyOfRange(buffer, position, position + word.length());
+		wordCount++;
+	}
+
+	/**
+	 * Makes sure the whole token starting at position is in the buffer, moving or
+	 * growing the buffer if it runs past the end.
+	 * @return the length of the token
+	 */
+	private int tokenLength() throws IOException
+	{
+		int end = position;
+		while(true)
+		{
+			if(end == limit)
+			{
+				if(position > 0) //move the partial token to the front to make room
+				{
+					System.arraycopy(buffer, position, buffer, 0, limit - position);
+					end -= position;
+					limit -= position;
+					position = 0;
+				}
+				if(limit == buffer.length)
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				int read = in.read(buffer, limit, buffer.length - limit);
+				if(read <= 0)
+					break;
+				limit += read;
+			}
+			int c = buffer[end];
+			if(c == '\n' || isSpace(c))
+				break;
+			end++;
+		}
+		return end - position;
+	}
+
+	/**
+	 * @return the first byte after any spaces, not consumed, or -1 at the end of the input
+	 */
+	private int skipSpaces() throws IOException
+	{
+		int c = peek();
+		while(isSpace(c))
+		{
+			position++;
+			c = peek();
+		}
+		return c;
+	}
+
+	/**
+	 * @return the next byte without consuming it, or -1 at the end of the input
+	 */
+	private int peek() throws IOException
+	{
+		if(position == limit)
+		{
+			position = 0;
+			limit = Math.max(0, in.read(buffer, 0, buffer.length));
+			if(limit == 0)
+				return -1;
+		}
+		return buffer[position] & 0xff;
+	}
+
+	private static boolean isSpace(int c)
+	{
+		return c == ' ' || c == '\t' || c == '\r';
+	}
+
+	private static String describe(int c)
+	{
+		if(c == -1)
+			return "the end of the input";
+		if(c == '\n')
+			return "the end of the line";
+		return "'" + (char) c + "'";
+	}
+}
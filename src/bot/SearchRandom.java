@@ -0,0 +1,133 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bot;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The random number source for all search code. Each instance is a SplitMix64
+ * generator with no synchronization, so it must only be used by one thread;
+ * forThread() hands every thread its own, and split() derives an independent
+ * generator for a task handed to another thread.
+ *
+ * Normally the root seed comes from the clock. Giving one with setReplaySeed
+ * (the --seed command line option) puts the bot in replay mode: the seed fixes
+ * every random choice, and searches run for a fixed number of iterations
+ * instead of a fixed time, so the same input gives the same moves bit-for-bit.
+ */
+public final class SearchRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private static volatile long rootSeed = System.nanoTime() ^ System.currentTimeMillis();
+	private static volatile boolean replay = false;
+	private static final AtomicLong threadCount = new AtomicLong();
+
+	private static final ThreadLocal<SearchRandom> perThread = new ThreadLocal<SearchRandom>() {
+		@Override
+		protected SearchRandom initialValue()
+		{
+			return new SearchRandom(mix(rootSeed + threadCount.getAndIncrement() * GOLDEN_GAMMA));
+		}
+	};
+
+	private long state; //set through setSeed by the Random constructor
+
+	public SearchRandom(long seed)
+	{
+		super(seed);
+	}
+
+	/**
+	 * Fixes the root seed and turns on replay mode. Must be called before any
+	 * thread asks for its generator.
+	 * @param seed the seed to replay
+	 */
+	public static void setReplaySeed(long seed)
+	{
+		rootSeed = seed;
+		replay = true;
+		threadCount.set(0);
+		perThread.remove();
+	}
+
+	/**
+	 * @return True if a seed was given, so searches must not depend on the clock
+	 */
+	public static boolean isReplay()
+	{
+		return replay;
+	}
+
+	/**
+	 * @return the calling thread's generator
+	 */
+	public static SearchRandom forThread()
+	{
+		return perThread.get();
+	}
+
+	/**
+	 * Restarts the calling thread's generator from the given seed, for work such
+	 * as a self-play game that must replay the same whichever thread runs it
+	 * @param seed the seed for this piece of work
+	 */
+	public static void seedThread(long seed)
+	{
+		perThread.get().setSeed(mix(seed));
+	}
+
+	/**
+	 * @return a new generator whose sequence is independent of this one's, for
+	 * 		   handing to another thread. Its seed depends only on this generator's
+	 * 		   state, so splits made in a fixed order replay exactly.
+	 */
+	public SearchRandom split()
+	{
+		return new SearchRandom(mix(nextLong()));
+	}
+
+	@Override
+	public void setSeed(long seed)
+	{
+		state = seed;
+	}
+
+	@Override
+	protected int next(int bits)
+	{
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public long nextLong()
+	{
+		state += GOLDEN_GAMMA;
+		return mix(state);
+	}
+
+	/**
+	 * SplitMix64 output function
+	 */
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
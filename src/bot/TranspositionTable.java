@@ -0,0 +1,203 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+
+package bot;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import metrics.Counter;
+import metrics.Metrics;
+
+/**
+ * A fixed-size cache of what the searches have worked out, keyed by a 64-bit
+ * state hash such as Map.getExactStateHash. It is open addressed: a key may sit in
+ * any of the BUCKET slots starting at the one its hash picks, and a full bucket
+ * makes room by replacing its least valuable entry.
+ *
+ * Entries are immutable and swapped in with compare-and-set, so any number of
+ * threads may probe and store at once without locks. A store that loses a race
+ * for a slot is dropped; it only costs a later miss.
+ *
+ * Each entry keeps how much search went into it (depth) and the round it was
+ * stored in (age). Entries from earlier rounds are replaced first, then the
+ * shallowest ones, and a key's entry is only replaced by one at least as deep.
+ *
+ * While metrics are on, the table counts its probes, hits, stores and evictions
+ * as name.probes, name.hits, name.stores and name.evictions.
+ */
+public final class TranspositionTable {
+
+	private static final int BUCKET = 4; //slots a key may be stored in
+
+	private final AtomicReferenceArray<Entry> slots;
+	private final int mask; //of the first slot of a bucket
+	private final Counter probes, hits, stores, evictions;
+
+	/**
+	 * @param name : the prefix of the table's counters
+	 * @param capacity : the number of entries, rounded up to a power of two
+	 */
+	public TranspositionTable(String name, int capacity)
+	{
+		int size = capacity <= BUCKET ? BUCKET : Integer.highestOneBit(capacity - 1) << 1;
+		this.slots = new AtomicReferenceArray<Entry>(size);
+		this.mask = (size - 1) & ~(BUCKET - 1);
+		this.probes = Metrics.counter(name + ".probes");
+		this.hits = Metrics.counter(name + ".hits");
+		this.stores = Metrics.counter(name + ".stores");
+		this.evictions = Metrics.counter(name + ".evictions");
+	}
+
+	/**
+	 * @param key : a state hash
+	 * @return : the entry stored for the key, or null if there is none
+	 */
+	public Entry probe(long key)
+	{
+		if(Metrics.ENABLED)
+			probes.increment();
+		int first = bucket(key);
+		for(int s = first; s < first + BUCKET; s++)
+		{
+			Entry entry = slots.get(s);
+			if(entry != null && entry.key == key)
+			{
+				if(Metrics.ENABLED)
+					hits.increment();
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Stores what a search found for a state, unless the table already holds a
+	 * deeper entry for it from the same round
+	 * @param key : a state hash
+	 * @param utility : the value found for the state
+	 * @param plan : the moves found for the state, or null. The table keeps the array, so it must not be changed afterwards.
+	 * @param depth : how much search went into the entry, such as its iterations
+	 * @param age : the round number
+	 */
+	public void store(long key, double utility, int[] plan, int depth, int age)
+	{
+		int first = bucket(key);
+		int victim = -1;
+		Entry replaced = null;
+		for(int s = first; s < first + BUCKET; s++)
+		{
+			Entry entry = slots.get(s);
+			if(entry == null)
+			{
+				if(victim == -1 || replaced != null)
+				{
+					victim = s;
+					replaced = null;
+				}
+				continue;
+			}
+			if(entry.key == key)
+			{
+				if(entry.age == age && entry.depth > depth)
+					return;
+				victim = s;
+				replaced = entry;
+				break;
+			}
+			if(victim == -1 || (replaced != null && lessValuable(entry, replaced)))
+			{
+				victim = s;
+				replaced = entry;
+			}
+		}
+		if(!slots.compareAndSet(victim, replaced, new Entry(key, utility, plan, depth, age)))
+			return; //another thread stored there first
+		if(Metrics.ENABLED)
+		{
+			stores.increment();
+			if(replaced != null && replaced.key != key)
+				evictions.increment();
+		}
+	}
+
+	/**
+	 * Empties the table. Stores made while it runs may survive it.
+	 */
+	public void clear()
+	{
+		for(int s = 0; s < slots.length(); s++)
+			slots.set(s, null);
+	}
+
+	private int bucket(long key)
+	{
+		return (int) (key ^ (key >>> 32)) & mask;
+	}
+
+	private static boolean lessValuable(Entry a, Entry b)
+	{
+		return a.age < b.age || (a.age == b.age && a.depth < b.depth);
+	}
+
+	/**
+	 * What a search found for one state
+	 */
+	public static final class Entry {
+
+		public final long key;
+		public final double utility;
+		private final int[] plan;
+		public final int depth;
+		public final int age;
+
+		Entry(long key, double utility, int[] plan, int depth, int age)
+		{
+			this.key = key;
+			this.utility = utility;
+			this.plan = plan;
+			this.depth = depth;
+			this.age = age;
+		}
+
+		/**
+		 * @return : a copy of the moves stored with the entry, or null if there are none
+		 */
+		public int[] getPlan()
+		{
+			return plan == null ? null : plan.clone();
+		}
+
+		/**
+		 * @return : the number of entries in the plan, 0 if there is none
+		 */
+		public int getPlanLength()
+		{
+			return plan == null ? 0 : plan.length;
+		}
+
+		/**
+		 * @return : the sum of the plan's entries, such as the armies it moves
+		 */
+		public int getPlanTotal()
+		{
+			int total = 0;
+			if(plan != null)
+				for(int value : plan)
+					total += value;
+			return total;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package bot;
+
+/**
+ * Decides how much of the timebank each move request may use.
+ *
+ * The engine gives every request the time left in our timebank, and adds
+ * time_per_move to it before each request, up to the timebank setting. Each
+ * request may always spend its own time_per_move, plus a share of whatever has
+ * been saved up beyond that, spread over the requests left in the game. A
+ * safety margin is held back, grown by any time the engine took from the bank
+ * that we did not measure ourselves.
+ */
+public class TurnBudget {
+
+	private static final long SAFETY_MILLIS = 50;   //always left in the bank
+	private static final long MIN_MILLIS = 5;       //even a nearly empty bank gets a short search
+	private static final long DEFAULT_MILLIS = 500; //used when the engine gives no time at all
+	private static final int UNKNOWN_ROUNDS_LEFT = 10;
+
+	private long lastBank = -1; //timebank given with the previous request
+	private long lastStart;     //nanoTime the previous request started
+	private long lastUsed = -1; //milliseconds the previous request took us, -1 if not finished
+	private long overhead;      //average time lost per request outside our own measurements
+
+	/**
+	 * Starts timing a move request.
+	 * @param state the current state, for the timebank settings and round number
+	 * @param timeOut the time left in the timebank, as given with the request
+	 * @return the deadline for answering this request
+	 */
+	public Deadline startRequest(BotState state, Long timeOut)
+	{
+		long now = System.nanoTime();
+		long bank = timeOut == null || timeOut <= 0 ? DEFAULT_MILLIS : timeOut;
+		long perMove = state.getTimePerMove() > 0 ? state.getTimePerMove() : DEFAULT_MILLIS;
+		long maxBank = state.getTotalTimebank() > 0 ? state.getTotalTimebank() : bank;
+
+		if(lastBank >= 0 && lastUsed >= 0 && !SearchRandom.isReplay()) //replays must not depend on the clock
+		{
+			long expected = Math.min(maxBank, lastBank - lastUsed + perMove);
+			long lost = Math.max(0, expected - bank);
+			overhead = (overhead * 3 + lost) / 4;
+		}
+		lastBank = bank;
+		lastStart = now;
+		lastUsed = -1;
+
+		int roundsLeft = state.getMaxRounds() > 0 ? Math.max(1, state.getMaxRounds() - state.getRoundNumber() + 1) : UNKNOWN_ROUNDS_LEFT;
+		long saved = Math.max(0, bank - perMove);
+		long allowed = perMove + saved / (2 * roundsLeft); //two requests per round
+		allowed = Math.min(allowed, bank - SAFETY_MILLIS - overhead);
+		return new Deadline(Math.max(MIN_MILLIS, allowed));
+	}
+	
+	/**
+	 * Records that the current request's answer is ready, so the next request can
+	 * tell how much of the bank went to things other than our search.
+	 */
+	public void finishRequest()
+	{
+		lastUsed = (System.nanoTime() - lastStart) / 1000000;
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package engine;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import bot.BotState;
+import map.Map;
+import map.MapTopology;
+import map.Region;
+import map.SuperRegion;
+
+/**
+ * A map for LocalEngine to play on: its SuperRegions, Regions, links and
+ * wastelands, as the engine would give them with setup_map. Once built it is
+ * only read, so any number of games may share it.
+ */
+public class GameMap {
+
+	private final Map map = new Map();
+	private final BitSet wastelands = new BitSet(); //by dense index
+
+	public void addSuperRegion(int id, int armiesReward)
+	{
+		map.add(new SuperRegion(id, armiesReward));
+	}
+
+	public void addRegion(int id, int superRegionId)
+	{
+		SuperRegion superRegion = map.getSuperRegion(superRegionId);
+		if(superRegion == null)
+			throw new IllegalArgumentException("Unknown SuperRegion " + superRegionId);
+		map.add(new Region(id, superRegion));
+	}
+
+	public void addNeighbor(int regionId, int neighborId)
+	{
+		region(regionId).addNeighbor(region(neighborId));
+	}
+
+	public void addWasteland(int regionId)
+	{
+		wastelands.set(region(regionId).getIndex());
+	}
+
+	private Region region(int id)
+	{
+		Region region = map.getRegion(id);
+		if(region == null)
+			throw new IllegalArgumentException("Unknown Region " + id);
+		return region;
+	}
+
+	public MapTopology getTopology()
+	{
+		return map.getTopology();
+	}
+
+	/**
+	 * @return True if the region with the given dense index is a wasteland
+	 */
+	public boolean isWasteland(int index)
+	{
+		return wastelands.get(index);
+	}
+
+	/**
+	 * Gives the map to a bot the way the setup_map lines do, each link once
+	 */
+	void sendTo(BotState state)
+	{
+		MapTopology topology = getTopology();
+		for(int s = 0; s < topology.getSuperRegionCount(); s++)
+			state.addSuperRegion(topology.getSuperRegionId(s), topology.getArmiesReward(s));
+		for(int r = 0; r < topology.getRegionCount(); r++)
+			state.addRegion(topology.getRegionId(r), topology.getSuperRegionId(topology.getSuperRegionOf(r)));
+		for(int r = 0; r < topology.getRegionCount(); r++)
+			for(int k = 0; k < topology.getNeighborCount(r); k++)
+			{
+				int neighbor = topology.getNeighbor(r, k);
+				if(neighbor > r)
+					state.addNeighbor(topology.getRegionId(r), topology.getRegionId(neighbor));
+			}
+		state.endNeighbors();
+		state.clearWastelands();
+		for(int r = wastelands.nextSetBit(0); r >= 0; r = wastelands.nextSetBit(r + 1))
+			state.addWasteland(topology.getRegionId(r));
+	}
+
+	/**
+	 * Makes a map shaped roughly like the competition's: regions on a grid,
+	 * linked to the regions beside and below them and now and then diagonally,
+	 * grouped into SuperRegions of two by three. A SuperRegion is worth about one
+	 * army less than its size, and one in four holds a wasteland.
+	 * @param regions : the number of regions
+	 * @param rand : decides the rewards, diagonals and wastelands
+	 */
+	public static GameMap random(int regions, Random rand)
+	{
+		GameMap map = new GameMap();
+		int width = Math.max(2, (int) Math.ceil(Math.sqrt(regions)));
+		int blocksPerRow = (width + 1) / 2;
+		int[] blockOf = new int[regions + 1];
+		int[] blockSize = new int[regions + 1];
+		for(int r = 1; r <= regions; r++)
+		{
+			int row = (r - 1) / width, column = (r - 1) % width;
+			blockOf[r] = (row / 3) * blocksPerRow + column / 2 + 1;
+			blockSize[blockOf[r]]++;
+		}
+		for(int s = 1; s <= regions; s++)
+			if(blockSize[s] > 0)
+				map.addSuperRegion(s, Math.max(1, blockSize[s] - 1 + rand.nextInt(2) - rand.nextInt(2)));
+		for(int r = 1; r <= regions; r++)
+			map.addRegion(r, blockOf[r]);
+		for(int r = 1; r <= regions; r++)
+		{
+			boolean right = r % width != 0 && r + 1 <= regions;
+			boolean below = r + width <= regions;
+			if(right)
+				map.addNeighbor(r, r + 1);
+			if(below)
+				map.addNeighbor(r, r + width);
+			if(right && below && r + width + 1 <= regions && rand.nextInt(4) == 0) //the last row may be short
+				map.addNeighbor(r, r + width + 1);
+		}
+		MapTopology topology = map.getTopology();
+		for(int s = 0; s < topology.getSuperRegionCount(); s++)
+			if(rand.nextInt(4) == 0)
+				map.wastelands.set(topology.getSubRegion(s, rand.nextInt(topology.getSubRegionCount(s))));
+		return map;
+	}
+}
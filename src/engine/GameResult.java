@@ -0,0 +1,79 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package engine;
+
+/**
+ * How a game played by LocalEngine ended
+ */
+public class GameResult {
+
+	private final int winner; //LocalEngine.PLAYER1 or PLAYER2, 0 for a draw
+	private final int rounds;
+	private final int[] regions; //by player, regions held at the end
+	private final int[] armies;  //by player, armies on the map at the end
+	private final long[][] requestNanos; //by player, how long each of its move requests took
+
+	GameResult(int winner, int rounds, int[] regions, int[] armies, long[][] requestNanos)
+	{
+		this.winner = winner;
+		this.rounds = rounds;
+		this.regions = regions;
+		this.armies = armies;
+		this.requestNanos = requestNanos;
+	}
+
+	/**
+	 * @return LocalEngine.PLAYER1 or PLAYER2, or 0 if the game was drawn
+	 */
+	public int getWinner() {
+		return winner;
+	}
+
+	/**
+	 * @return the number of rounds played
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	/**
+	 * @return the number of regions the given player held at the end
+	 */
+	public int getRegions(int player) {
+		return regions[player];
+	}
+
+	/**
+	 * @return the number of armies the given player had on the map at the end
+	 */
+	public int getArmies(int player) {
+		return armies[player];
+	}
+
+	/**
+	 * @return how long each request to the given player took, picks included, in nanoseconds
+	 */
+	public long[] getRequestNanos(int player) {
+		return requestNanos[player];
+	}
+
+	@Override
+	public String toString() {
+		return (winner == 0 ? "draw" : "player" + winner + " won") + " after " + rounds + " rounds, regions "
+				+ regions[LocalEngine.PLAYER1] + "-" + regions[LocalEngine.PLAYER2] + ", armies "
+				+ armies[LocalEngine.PLAYER1] + "-" + armies[LocalEngine.PLAYER2];
+	}
+}
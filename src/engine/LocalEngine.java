@@ -0,0 +1,445 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import bot.Bot;
+import bot.BotState;
+import map.BattleSimulator;
+import map.MapTopology;
+import map.Region;
+import move.AttackTransferMove;
+import move.PlaceArmiesMove;
+
+/**
+ * Plays a game of Warlight II between two Bots inside this JVM, without the
+ * competition engine, stdio or extra processes.
+ *
+ * Each bot gets its own BotState, which the engine fills in through the same
+ * methods BotParser calls for the engine's commands, and is asked for its moves
+ * the way BotParser asks. The rules follow the competition engine:
+ * - one random region per SuperRegion is offered at the start, and the players
+ *   take turns (ABBAAB) picking three each, the engine picking at random for a
+ *   bot that picks something not on offer
+ * - every round a player gets 5 armies plus the reward of every SuperRegion it
+ *   holds completely
+ * - both players place, then their attacks and transfers are carried out taking
+ *   turns, the player to go first chosen at random every round. A move only uses
+ *   armies that have not arrived this round, and always leaves one behind.
+ * - attacks are resolved by BattleSimulator
+ * - a player sees its own regions and their neighbors, and is told about the
+ *   opponent's moves it could see when they were made
+ * - a player with no regions left loses; after max rounds the one with more
+ *   regions wins
+ *
+ * Time is charged to each bot's timebank as measured, and a bot that runs over
+ * has its moves thrown away. Turn that off with setChargeTime for games that must
+ * replay exactly.
+ */
+public class LocalEngine {
+
+	public static final int NEUTRAL = 0, PLAYER1 = 1, PLAYER2 = 2;
+
+	static final int BASE_INCOME = 5;
+	static final int NEUTRAL_ARMIES = 2;
+	static final int WASTELAND_ARMIES = 6;
+	static final int PICKED_ARMIES = 2;
+	static final int PICKS_PER_PLAYER = 3;
+
+	private static final String[] NAMES = {"neutral", "player1", "player2"};
+
+	private final GameMap map;
+	private final MapTopology topology;
+	private final Bot[] bots = new Bot[3];         //by player, 0 unused
+	private final BotState[] states = new BotState[3];
+	private final Random rand;
+	private final BattleSimulator battles;
+
+	private int maxRounds = 100;
+	private long timebank = 10000;
+	private long timePerMove = 500;
+	private boolean chargeTime = true;
+
+	private final int[] owners;  //by dense index
+	private final int[] armies;
+	private final int[] arrived; //armies moved into each region this round, which may not move on
+	private final long[] banks = new long[3];
+	private final long[][] requestNanos = {null, new long[256], new long[256]}; //by player, how long each request took
+	private final int[] requestCount = new int[3];
+	private final ArrayList<ArrayList<Order>> seen = new ArrayList<ArrayList<Order>>(); //by player, the opponent's moves it saw this round
+
+	/**
+	 * A placement (from -1) or attack/transfer as carried out, by dense indices
+	 */
+	private static final class Order {
+		final int player, from, to, armies;
+
+		Order(int player, int from, int to, int armies)
+		{
+			this.player = player;
+			this.from = from;
+			this.to = to;
+			this.armies = armies;
+		}
+	}
+
+	/**
+	 * @param map : the map to play on
+	 * @param player1 : the bot playing as player1
+	 * @param player2 : the bot playing as player2
+	 * @param seed : decides the starting regions on offer, who moves first and the battles
+	 */
+	public LocalEngine(GameMap map, Bot player1, Bot player2, long seed)
+	{
+		this.map = map;
+		this.topology = map.getTopology();
+		this.bots[PLAYER1] = player1;
+		this.bots[PLAYER2] = player2;
+		this.rand = new Random(seed);
+		this.battles = new BattleSimulator(rand);
+		int regions = topology.getRegionCount();
+		this.owners = new int[regions];
+		this.armies = new int[regions];
+		this.arrived = new int[regions];
+		for(int p = 0; p <= PLAYER2; p++)
+			seen.add(new ArrayList<Order>());
+	}
+
+	public void setMaxRounds(int maxRounds)
+	{
+		this.maxRounds = maxRounds;
+	}
+
+	public void setTimebank(long timebank, long timePerMove)
+	{
+		this.timebank = timebank;
+		this.timePerMove = timePerMove;
+	}
+
+	/**
+	 * @param chargeTime : False to give every request the full timebank whatever the bots take
+	 */
+	public void setChargeTime(boolean chargeTime)
+	{
+		this.chargeTime = chargeTime;
+	}
+
+	/**
+	 * Plays the game to the end. An engine plays one game only.
+	 */
+	public GameResult play()
+	{
+		for(int p = PLAYER1; p <= PLAYER2; p++)
+		{
+			BotState state = new BotState();
+			state.updateSetting("timebank", String.valueOf(timebank));
+			state.updateSetting("time_per_move", String.valueOf(timePerMove));
+			state.updateSetting("max_rounds", String.valueOf(maxRounds));
+			state.updateSetting("your_bot", NAMES[p]);
+			state.updateSetting("opponent_bot", NAMES[opponent(p)]);
+			map.sendTo(state);
+			states[p] = state;
+			banks[p] = timebank;
+		}
+		for(int r = 0; r < owners.length; r++)
+		{
+			owners[r] = NEUTRAL;
+			armies[r] = map.isWasteland(r) ? WASTELAND_ARMIES : NEUTRAL_ARMIES;
+		}
+		pickStartingRegions();
+
+		int round = 0;
+		int winner = -1;
+		while(winner == -1)
+		{
+			round++;
+			playRound();
+			winner = winner(round);
+		}
+		int[] regionCounts = new int[3];
+		int[] armyCounts = new int[3];
+		for(int r = 0; r < owners.length; r++)
+		{
+			regionCounts[owners[r]]++;
+			armyCounts[owners[r]] += armies[r];
+		}
+		long[][] latencies = new long[3][];
+		for(int p = PLAYER1; p <= PLAYER2; p++)
+			latencies[p] = Arrays.copyOf(requestNanos[p], requestCount[p]);
+		return new GameResult(winner, round, regionCounts, armyCounts, latencies);
+	}
+
+	private void pickStartingRegions()
+	{
+		ArrayList<Integer> pickable = new ArrayList<Integer>(); //dense indices still on offer
+		for(int s = 0; s < topology.getSuperRegionCount(); s++)
+		{
+			ArrayList<Integer> candidates = new ArrayList<Integer>();
+			for(int k = 0; k < topology.getSubRegionCount(s); k++)
+				if(!map.isWasteland(topology.getSubRegion(s, k)))
+					candidates.add(topology.getSubRegion(s, k));
+			if(!candidates.isEmpty())
+				pickable.add(candidates.get(rand.nextInt(candidates.size())));
+		}
+
+		int picks = Math.min(PICKS_PER_PLAYER, pickable.size() / 2);
+		for(int i = 0; i < 2 * picks; i++)
+		{
+			int p = i % 4 == 0 || i % 4 == 3 ? PLAYER1 : PLAYER2;
+			BotState state = states[p];
+			state.clearPickableStartingRegions();
+			for(int index : pickable)
+				state.addPickableStartingRegion(topology.getRegionId(index));
+
+			Region choice = null;
+			long given = banks[p];
+			long start = System.nanoTime();
+			try {
+				choice = bots[p].getStartingRegion(state, given);
+			}
+			catch(RuntimeException e) {
+				System.err.println(NAMES[p] + " failed to pick a starting region: " + e);
+			}
+			int index = choice == null ? -1 : topology.getRegionIndex(choice.getId());
+			if(!finishRequest(p, given, start) || !pickable.contains(index))
+				index = pickable.get(rand.nextInt(pickable.size()));
+			pickable.remove(Integer.valueOf(index));
+			owners[index] = p;
+			armies[index] = PICKED_ARMIES;
+		}
+	}
+
+	private void playRound()
+	{
+		int[] income = new int[3];
+		for(int p = PLAYER1; p <= PLAYER2; p++)
+		{
+			income[p] = income(p);
+			states[p].setStartingArmies(income[p]);
+			sendMap(p);
+			sendOpponentMoves(p);
+		}
+
+		ArrayList<ArrayList<PlaceArmiesMove>> placements = new ArrayList<ArrayList<PlaceArmiesMove>>();
+		ArrayList<ArrayList<AttackTransferMove>> attacks = new ArrayList<ArrayList<AttackTransferMove>>();
+		placements.add(null);
+		attacks.add(null);
+		for(int p = PLAYER1; p <= PLAYER2; p++)
+		{
+			ArrayList<PlaceArmiesMove> placed = new ArrayList<PlaceArmiesMove>();
+			long given = banks[p];
+			long start = System.nanoTime();
+			try {
+				placed = bots[p].getPlaceArmiesMoves(states[p], given);
+			}
+			catch(RuntimeException e) {
+				System.err.println(NAMES[p] + " failed to place armies: " + e);
+			}
+			placements.add(finishRequest(p, given, start) && placed != null ? placed : new ArrayList<PlaceArmiesMove>());
+
+			ArrayList<AttackTransferMove> moved = new ArrayList<AttackTransferMove>();
+			given = banks[p];
+			start = System.nanoTime();
+			try {
+				moved = bots[p].getAttackTransferMoves(states[p], given);
+			}
+			catch(RuntimeException e) {
+				System.err.println(NAMES[p] + " failed to attack/transfer: " + e);
+			}
+			attacks.add(finishRequest(p, given, start) && moved != null ? moved : new ArrayList<AttackTransferMove>());
+		}
+
+		seen.get(PLAYER1).clear();
+		seen.get(PLAYER2).clear();
+		for(int p = PLAYER1; p <= PLAYER2; p++)
+		{
+			int left = income[p];
+			for(PlaceArmiesMove move : placements.get(p))
+			{
+				int index = indexOf(move.getRegion());
+				int placed = Math.min(move.getArmies(), left);
+				if(index == -1 || owners[index] != p || placed <= 0)
+					continue;
+				armies[index] += placed;
+				left -= placed;
+				see(new Order(p, -1, index, placed));
+			}
+		}
+
+		Arrays.fill(arrived, 0);
+		int first = rand.nextBoolean() ? PLAYER1 : PLAYER2;
+		ArrayList<AttackTransferMove> firstMoves = attacks.get(first);
+		ArrayList<AttackTransferMove> secondMoves = attacks.get(opponent(first));
+		for(int i = 0; i < Math.max(firstMoves.size(), secondMoves.size()); i++)
+		{
+			if(i < firstMoves.size())
+				attackTransfer(first, firstMoves.get(i));
+			if(i < secondMoves.size())
+				attackTransfer(opponent(first), secondMoves.get(i));
+		}
+	}
+
+	private void attackTransfer(int p, AttackTransferMove move)
+	{
+		int from = indexOf(move.getFromRegion());
+		int to = indexOf(move.getToRegion());
+		if(from == -1 || to == -1 || owners[from] != p || !topology.isNeighbor(from, to))
+			return;
+		int moving = Math.min(move.getArmies(), armies[from] - 1 - arrived[from]);
+		if(moving <= 0)
+			return;
+		see(new Order(p, from, to, moving));
+
+		if(owners[to] == p) //transfer
+		{
+			armies[from] -= moving;
+			armies[to] += moving;
+			arrived[to] += moving;
+			return;
+		}
+		long result = battles.roll(moving, armies[to]);
+		int attackersLost = BattleSimulator.attackersLost(result);
+		int defendersLost = BattleSimulator.defendersLost(result);
+		if(defendersLost >= armies[to]) //taken, the survivors move in
+		{
+			owners[to] = p;
+			armies[to] = moving - attackersLost;
+			arrived[to] = armies[to];
+			armies[from] -= moving;
+		}
+		else
+		{
+			armies[from] -= attackersLost;
+			armies[to] -= defendersLost;
+		}
+	}
+
+	/**
+	 * Lets the opponent of the player making a move know about it if it can see
+	 * either end of the move as it happens
+	 */
+	private void see(Order order)
+	{
+		int viewer = opponent(order.player);
+		if(visibleTo(viewer, order.to) || (order.from != -1 && visibleTo(viewer, order.from)))
+			seen.get(viewer).add(order);
+	}
+
+	private void sendMap(int p)
+	{
+		BotState state = states[p];
+		state.beginMapUpdate();
+		for(int r = 0; r < owners.length; r++)
+			if(visibleTo(p, r))
+				state.updateRegion(topology.getRegionId(r), NAMES[owners[r]], armies[r]);
+		state.endMapUpdate();
+	}
+
+	private void sendOpponentMoves(int p)
+	{
+		BotState state = states[p];
+		state.clearOpponentMoves();
+		for(Order order : seen.get(p))
+		{
+			if(order.from == -1)
+				state.addOpponentPlaceArmies(NAMES[order.player], topology.getRegionId(order.to), order.armies);
+			else
+				state.addOpponentAttackTransfer(NAMES[order.player], topology.getRegionId(order.from),
+						topology.getRegionId(order.to), order.armies);
+		}
+	}
+
+	/**
+	 * Records how long a request took, charges it to the player's timebank and
+	 * adds the time for the next one
+	 * @param given : the timebank the request was given
+	 * @param start : nanoTime the request started
+	 * @return : False if the request ran over its timebank, so its answer does not count
+	 */
+	private boolean finishRequest(int p, long given, long start)
+	{
+		long nanos = System.nanoTime() - start;
+		if(requestCount[p] == requestNanos[p].length)
+			requestNanos[p] = Arrays.copyOf(requestNanos[p], requestCount[p] * 2);
+		requestNanos[p][requestCount[p]++] = nanos;
+
+		boolean inTime = true;
+		if(chargeTime)
+		{
+			long used = nanos / 1000000;
+			inTime = used <= given;
+			banks[p] = Math.max(0, given - used);
+			if(!inTime)
+				System.err.println(NAMES[p] + " ran out of time: " + used + " ms of " + given);
+		}
+		banks[p] = Math.min(timebank, banks[p] + timePerMove);
+		return inTime;
+	}
+
+	private boolean visibleTo(int p, int index)
+	{
+		if(owners[index] == p)
+			return true;
+		for(int k = 0; k < topology.getNeighborCount(index); k++)
+			if(owners[topology.getNeighbor(index, k)] == p)
+				return true;
+		return false;
+	}
+
+	private int income(int p)
+	{
+		int income = BASE_INCOME;
+		for(int s = 0; s < topology.getSuperRegionCount(); s++)
+		{
+			boolean complete = topology.getSubRegionCount(s) > 0;
+			for(int k = 0; k < topology.getSubRegionCount(s) && complete; k++)
+				complete = owners[topology.getSubRegion(s, k)] == p;
+			if(complete)
+				income += topology.getArmiesReward(s);
+		}
+		return income;
+	}
+
+	/**
+	 * @return : the winner, 0 for a draw, or -1 if the game goes on
+	 */
+	private int winner(int round)
+	{
+		int[] regionCounts = new int[3];
+		for(int r = 0; r < owners.length; r++)
+			regionCounts[owners[r]]++;
+		if(regionCounts[PLAYER1] == 0 || regionCounts[PLAYER2] == 0 || round >= maxRounds)
+		{
+			if(regionCounts[PLAYER1] == regionCounts[PLAYER2])
+				return 0;
+			return regionCounts[PLAYER1] > regionCounts[PLAYER2] ? PLAYER1 : PLAYER2;
+		}
+		return -1;
+	}
+
+	private int indexOf(Region region)
+	{
+		return region == null ? -1 : topology.getRegionIndex(region.getId());
+	}
+
+	private static int opponent(int p)
+	{
+		return p == PLAYER1 ? PLAYER2 : PLAYER1;
+	}
+}
@@ -0,0 +1,271 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package engine;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import bot.Bot;
+import bot.SearchRandom;
+import metrics.Metrics;
+
+/**
+ * Plays many LocalEngine games between two bots at once, one game per thread
+ * of a pool sized to the machine, and collects the standings.
+ *
+ * Every game gets new bots from the factories and its own engine and BotStates,
+ * so games share nothing but the map. The entrants swap sides every other game.
+ * Each game's seed decides the engine's choices and restarts the search random
+ * numbers of the thread playing it, so in replay mode (see SearchRandom) every
+ * game comes out the same however the games are spread over the threads.
+ *
+ * BotStarter's attack searches run on one pool per JVM, sized by
+ * -Dbot.searchThreads, which every game running at once shares. Unless that is
+ * given, main divides the cores between the games so that a full run does not
+ * ask for cores times cores threads, which would distort move latencies and
+ * cause timeouts that a real match would not see. A replay gives every attack
+ * search the same iterations whatever the split, so its standings depend on
+ * neither --threads nor -Dbot.searchThreads (see bench.ReplayThreadsCheck).
+ *
+ * Games run on a fixed pool of platform threads rather than virtual threads,
+ * which need Java 21 while the build targets Java 11. Games are CPU-bound, so
+ * more threads than cores would not play them any faster.
+ *
+ * Run with: java -cp <classes> engine.Tournament [--games N] [--threads N]
+ * 		[--regions N] [--rounds N] [--time-per-move ms] [--seed N] [--replay]
+ * 		[--a class] [--b class]
+ */
+public class Tournament {
+
+	/**
+	 * Makes a new bot for each game
+	 */
+	public interface BotFactory {
+		Bot create();
+	}
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L; //spreads game numbers over the seed space
+
+	private final GameMap map;
+	private final BotFactory[] entrants;
+	private final String[] names;
+
+	private int games = 100;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long seed = 1;
+	private int maxRounds = 100;
+	private long timebank = 10000;
+	private long timePerMove = 500;
+	private boolean chargeTime = true;
+
+	/**
+	 * @param map : the map every game is played on
+	 * @param a : makes entrant A's bots
+	 * @param b : makes entrant B's bots
+	 */
+	public Tournament(GameMap map, String nameA, BotFactory a, String nameB, BotFactory b)
+	{
+		this.map = map;
+		this.entrants = new BotFactory[] {a, b};
+		this.names = new String[] {nameA, nameB};
+	}
+
+	public void setGames(int games)
+	{
+		this.games = games;
+	}
+
+	public void setThreads(int threads)
+	{
+		this.threads = Math.max(1, threads);
+	}
+
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	public void setMaxRounds(int maxRounds)
+	{
+		this.maxRounds = maxRounds;
+	}
+
+	public void setTimebank(long timebank, long timePerMove)
+	{
+		this.timebank = timebank;
+		this.timePerMove = timePerMove;
+	}
+
+	/**
+	 * @see LocalEngine#setChargeTime
+	 */
+	public void setChargeTime(boolean chargeTime)
+	{
+		this.chargeTime = chargeTime;
+	}
+
+	/**
+	 * Plays every game and waits for the last one
+	 */
+	public TournamentResult run() throws InterruptedException
+	{
+		final AtomicInteger count = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable task)
+			{
+				Thread thread = new Thread(task, "tournament-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		CompletionService<Game> finished = new ExecutorCompletionService<Game>(pool);
+		TournamentResult result = new TournamentResult(names[TournamentResult.A], names[TournamentResult.B]);
+		long start = System.nanoTime();
+		try {
+			for(int number = 0; number < games; number++)
+				finished.submit(new Game(number));
+			for(int i = 0; i < games; i++)
+			{
+				try {
+					Game game = finished.take().get();
+					result.add(game.result, game.swapped);
+				}
+				catch(ExecutionException e) {
+					System.err.println("Game failed: " + e.getCause());
+					result.addFailure();
+				}
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		result.finish(System.nanoTime() - start);
+		return result;
+	}
+
+	/**
+	 * One game, played on whichever pool thread takes it
+	 */
+	private class Game implements Callable<Game> {
+
+		final int number;
+		final boolean swapped; //True if entrant A plays as player2
+		GameResult result;
+
+		Game(int number)
+		{
+			this.number = number;
+			this.swapped = number % 2 == 1;
+		}
+
+		@Override
+		public Game call()
+		{
+			long gameSeed = seed + number * GOLDEN_GAMMA;
+			SearchRandom.seedThread(gameSeed);
+			Bot a = entrants[TournamentResult.A].create();
+			Bot b = entrants[TournamentResult.B].create();
+			LocalEngine engine = new LocalEngine(map, swapped ? b : a, swapped ? a : b, gameSeed);
+			engine.setMaxRounds(maxRounds);
+			engine.setTimebank(timebank, timePerMove);
+			engine.setChargeTime(chargeTime);
+			result = engine.play();
+			return this;
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int games = 100, threads = Runtime.getRuntime().availableProcessors(), regions = 42, rounds = 60;
+		long seed = 1, timePerMove = 50;
+		boolean replay = false;
+		String a = "bot.BotStarter", b = "bot.BotStarter";
+		for(int i = 0; i < args.length; i++)
+		{
+			if(args[i].equals("--replay"))
+				replay = true;
+			else if(i + 1 == args.length)
+				System.err.println("Missing value for " + args[i]);
+			else if(args[i].equals("--games"))
+				games = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--threads"))
+				threads = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--regions"))
+				regions = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--rounds"))
+				rounds = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--time-per-move"))
+				timePerMove = Long.parseLong(args[++i]);
+			else if(args[i].equals("--seed"))
+				seed = Long.parseLong(args[++i]);
+			else if(args[i].equals("--a"))
+				a = args[++i];
+			else if(args[i].equals("--b"))
+				b = args[++i];
+			else
+				System.err.println("Unknown option " + args[i]);
+		}
+		if(System.getProperty("bot.searchThreads") == null) //read when the bot class loads, below
+			System.setProperty("bot.searchThreads", String.valueOf(Math.max(1, Runtime.getRuntime().availableProcessors() / threads)));
+		if(replay) //the seed fixes every game, and searches count iterations instead of time
+			SearchRandom.setReplaySeed(seed);
+
+		Tournament tournament = new Tournament(GameMap.random(regions, new Random(seed)), a, factory(a), b, factory(b));
+		tournament.setGames(games);
+		tournament.setThreads(threads);
+		tournament.setSeed(seed);
+		tournament.setMaxRounds(rounds);
+		tournament.setTimebank(10 * timePerMove, timePerMove);
+		tournament.setChargeTime(!replay);
+		System.out.print(tournament.run());
+		if(Metrics.ENABLED)
+			System.out.println(Metrics.summary());
+	}
+
+	/**
+	 * @return a factory making bots of the named class through its no-argument constructor
+	 */
+	static BotFactory factory(final String className)
+	{
+		final Class<?> type;
+		try {
+			type = Class.forName(className);
+		}
+		catch(ClassNotFoundException e) {
+			throw new IllegalArgumentException("No bot class " + className);
+		}
+		return new BotFactory() {
+			@Override
+			public Bot create()
+			{
+				try {
+					return (Bot) type.getDeclaredConstructor().newInstance();
+				}
+				catch(ReflectiveOperationException e) {
+					throw new IllegalStateException("Cannot create a " + className + ": " + e);
+				}
+			}
+		};
+	}
+}
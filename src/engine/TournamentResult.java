@@ -0,0 +1,144 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * The standings of a Tournament, and how fast it was played. The two entrants
+ * are told apart as A and B, whichever side of the board they played on.
+ */
+public class TournamentResult {
+
+	public static final int A = 0, B = 1;
+
+	private final String[] names;
+	private int games;    //games finished
+	private int failures; //games that threw instead of finishing
+	private int draws;
+	private final int[] wins = new int[2];
+	private long rounds;
+	private long nanos;   //wall time of the whole tournament
+
+	private final long[][] latencies = {new long[1024], new long[1024]}; //by entrant, every request's nanoseconds
+	private final int[] latencyCount = new int[2];
+
+	TournamentResult(String nameA, String nameB)
+	{
+		this.names = new String[] {nameA, nameB};
+	}
+
+	void add(GameResult result, boolean swapped)
+	{
+		games++;
+		rounds += result.getRounds();
+		int winner = result.getWinner();
+		if(winner == 0)
+			draws++;
+		else
+			wins[(winner == LocalEngine.PLAYER1) != swapped ? A : B]++;
+		addLatencies(swapped ? B : A, result.getRequestNanos(LocalEngine.PLAYER1));
+		addLatencies(swapped ? A : B, result.getRequestNanos(LocalEngine.PLAYER2));
+	}
+
+	private void addLatencies(int entrant, long[] requestNanos)
+	{
+		int count = latencyCount[entrant];
+		if(count + requestNanos.length > latencies[entrant].length)
+			latencies[entrant] = Arrays.copyOf(latencies[entrant], Math.max(count * 2, count + requestNanos.length));
+		System.arraycopy(requestNanos, 0, latencies[entrant], count, requestNanos.length);
+		latencyCount[entrant] = count + requestNanos.length;
+	}
+
+	void addFailure()
+	{
+		failures++;
+	}
+
+	void finish(long nanos)
+	{
+		this.nanos = nanos;
+		for(int entrant = A; entrant <= B; entrant++)
+			Arrays.sort(latencies[entrant], 0, latencyCount[entrant]);
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	public int getFailures() {
+		return failures;
+	}
+
+	public int getDraws() {
+		return draws;
+	}
+
+	public int getWins(int entrant) {
+		return wins[entrant];
+	}
+
+	/**
+	 * @return the share of finished games the entrant won
+	 */
+	public double winRate(int entrant)
+	{
+		return games == 0 ? 0 : (double) wins[entrant] / games;
+	}
+
+	public double gamesPerSecond()
+	{
+		return nanos == 0 ? 0 : games / (nanos / 1e9);
+	}
+
+	public double meanRounds()
+	{
+		return games == 0 ? 0 : (double) rounds / games;
+	}
+
+	/**
+	 * @param percentile : from 0 to 100
+	 * @return the time within which that share of the entrant's move requests
+	 * 		   were answered, by nearest rank, in nanoseconds
+	 */
+	public long latencyPercentile(int entrant, double percentile)
+	{
+		int count = latencyCount[entrant];
+		if(count == 0)
+			return 0;
+		int rank = (int) Math.ceil(percentile / 100 * count);
+		return latencies[entrant][Math.min(count, Math.max(1, rank)) - 1];
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder out = new StringBuilder();
+		out.append(String.format("%d games in %.1f s, %.2f games/s, %.1f rounds/game", games, nanos / 1e9, gamesPerSecond(), meanRounds()));
+		if(failures > 0)
+			out.append(", ").append(failures).append(" failed");
+		out.append(String.format("%n"));
+		for(int entrant = A; entrant <= B; entrant++)
+		{
+			out.append(String.format("%s %-20s won %5.1f%%   request ms p50 %.2f  p90 %.2f  p99 %.2f  max %.2f%n",
+					entrant == A ? "A" : "B", names[entrant], 100 * winRate(entrant),
+					latencyPercentile(entrant, 50) / 1e6, latencyPercentile(entrant, 90) / 1e6,
+					latencyPercentile(entrant, 99) / 1e6, latencyPercentile(entrant, 100) / 1e6));
+		}
+		out.append(String.format("  draws %5.1f%%%n", games == 0 ? 0 : 100.0 * draws / games));
+		return out.toString();
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package map;
+
+/**
+ * The links between regions in compressed sparse row form, plus a bitmask of
+ * every region's neighbors. Get it from MapTopology.getAdjacency; it never
+ * changes once built, so any thread can use it.
+ *
+ * The neighbors of region r are target(k) for k from start(r) to end(r)-1, in
+ * the order the setup_map neighbors line gave them. The masks hold words()
+ * longs per region, bit i of the mask standing for the region with dense index
+ * i, so neighbor sets can be combined a word at a time with other region sets
+ * such as the per-owner masks Map keeps for Map.hasNeighborOwnedBy and
+ * Map.neighborsOwnedBy.
+ */
+public final class Adjacency {
+
+	private final int[] offsets; //neighbors of r are targets[offsets[r]] to targets[offsets[r+1]-1]
+	private final int[] targets; //dense indices
+	private final int words;     //longs per mask
+	private final long[] masks;  //words longs per region
+
+	private Adjacency(int[] offsets, int[] targets, int words, long[] masks)
+	{
+		this.offsets = offsets;
+		this.targets = targets;
+		this.words = words;
+		this.masks = masks;
+	}
+
+	static Adjacency build(MapTopology topology)
+	{
+		int n = topology.getRegionCount();
+		int[] offsets = new int[n + 1];
+		for(int r = 0; r < n; r++)
+			offsets[r + 1] = offsets[r] + topology.getNeighborCount(r);
+		int[] targets = new int[offsets[n]];
+		int words = (n + 63) >>> 6;
+		long[] masks = new long[n * words];
+		for(int r = 0; r < n; r++)
+		{
+			for(int k = 0; k < topology.getNeighborCount(r); k++)
+			{
+				int neighbor = topology.getNeighbor(r, k);
+				targets[offsets[r] + k] = neighbor;
+				masks[r * words + (neighbor >>> 6)] |= 1L << neighbor;
+			}
+		}
+		return new Adjacency(offsets, targets, words, masks);
+	}
+
+	/**
+	 * @return : the number of neighbors of the region with dense index region
+	 */
+	public int degree(int region)
+	{
+		return offsets[region + 1] - offsets[region];
+	}
+
+	/**
+	 * @return : the position of the region's first neighbor, for use with target
+	 */
+	public int start(int region)
+	{
+		return offsets[region];
+	}
+
+	/**
+	 * @return : the position just after the region's last neighbor
+	 */
+	public int end(int region)
+	{
+		return offsets[region + 1];
+	}
+
+	/**
+	 * @param position : a position from start(r) to end(r)-1
+	 * @return : the dense index of the neighbor at that position
+	 */
+	public int target(int position)
+	{
+		return targets[position];
+	}
+
+	/**
+	 * @return : True if the regions with dense indices a and b are adjacent
+	 */
+	public boolean isNeighbor(int a, int b)
+	{
+		return (masks[a * words + (b >>> 6)] & (1L << b)) != 0;
+	}
+
+	/**
+	 * @return : the number of longs in each region's neighbor mask
+	 */
+	public int words()
+	{
+		return words;
+	}
+
+	/**
+	 * @return : word w of the neighbor mask of the region with dense index region
+	 */
+	public long mask(int region, int w)
+	{
+		return masks[region * words + w];
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package map;
+
+import java.util.Arrays;
+
+/**
+ * The distributions found by BattleSimulator.simulate for a set of attacks. Its
+ * arrays are kept and reused by later batches as long as they are big enough.
+ */
+public final class BattleOutcome {
+
+	int count;    //attacks in the batch
+	int rollouts; //times the batch was played out
+	int[] attackers = new int[0];
+	int[] defenders = new int[0];
+	int[] captures = new int[0];            //per attack: rollouts in which it took its region
+	int[][] attackerSurvivors = new int[0][]; //per attack: rollouts by attacking armies left, 0 to attackers
+	int[][] defenderSurvivors = new int[0][]; //per attack: rollouts by defending armies left, 0 to defenders
+	int[] capturedTogether = new int[0];    //rollouts by the number of attacks that took their region
+
+	void reset(int[] attackers, int[] defenders, int count, int rollouts)
+	{
+		this.count = count;
+		this.rollouts = rollouts;
+		if(this.attackers.length < count)
+		{
+			this.attackers = new int[count];
+			this.defenders = new int[count];
+			this.captures = new int[count];
+			this.attackerSurvivors = Arrays.copyOf(attackerSurvivors, count);
+			this.defenderSurvivors = Arrays.copyOf(defenderSurvivors, count);
+		}
+		for(int i = 0; i < count; i++)
+		{
+			this.attackers[i] = attackers[i];
+			this.defenders[i] = defenders[i];
+			attackerSurvivors[i] = cleared(attackerSurvivors[i], attackers[i] + 1);
+			defenderSurvivors[i] = cleared(defenderSurvivors[i], defenders[i] + 1);
+		}
+		capturedTogether = cleared(capturedTogether, count + 1);
+	}
+
+	private static int[] cleared(int[] counts, int length)
+	{
+		if(counts == null || counts.length < length)
+			return new int[length];
+		Arrays.fill(counts, 0, length, 0);
+		return counts;
+	}
+
+	/**
+	 * @return : the number of attacks in the batch
+	 */
+	public int getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * @return : the number of times the batch was played out
+	 */
+	public int getRollouts()
+	{
+		return rollouts;
+	}
+
+	/**
+	 * @return : the share of rollouts in which attack i took its region
+	 */
+	public double captureProbability(int i)
+	{
+		return (double) captures[i] / rollouts;
+	}
+
+	/**
+	 * @return : the share of rollouts in which attack i ended with exactly left of its armies alive
+	 */
+	public double attackerSurvivorProbability(int i, int left)
+	{
+		return left < 0 || left > attackers[i] ? 0 : (double) attackerSurvivors[i][left] / rollouts;
+	}
+
+	/**
+	 * @return : the share of rollouts in which the target of attack i ended with exactly left armies
+	 */
+	public double defenderSurvivorProbability(int i, int left)
+	{
+		return left < 0 || left > defenders[i] ? 0 : (double) defenderSurvivors[i][left] / rollouts;
+	}
+
+	/**
+	 * @return : the average number of armies of attack i left alive, whether they moved in or went back
+	 */
+	public double meanAttackerSurvivors(int i)
+	{
+		long total = 0;
+		for(int left = 1; left <= attackers[i]; left++)
+			total += (long) left * attackerSurvivors[i][left];
+		return (double) total / rollouts;
+	}
+
+	/**
+	 * @return : the average number of armies left on the target of attack i, counting captures as 0
+	 */
+	public double meanDefenderSurvivors(int i)
+	{
+		long total = 0;
+		for(int left = 1; left <= defenders[i]; left++)
+			total += (long) left * defenderSurvivors[i][left];
+		return (double) total / rollouts;
+	}
+
+	/**
+	 * @return : the share of rollouts in which exactly taken of the attacks took their regions
+	 */
+	public double capturedTogetherProbability(int taken)
+	{
+		return taken < 0 || taken > count ? 0 : (double) capturedTogether[taken] / rollouts;
+	}
+}
@@ -0,0 +1,261 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package map;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Resolves attacks the way the game engine does, and plays out batches of them
+ * to get the distribution of their outcomes.
+ *
+ * The engine rolls, for every attacking army, a 60% chance to kill a defender and,
+ * for every defending army, a 70% chance to kill an attacker. Those rolls only
+ * count for 16% (the luck modifier): the kills are
+ * 		round(armies * chance * (1 - luck) + rolled kills * luck).
+ * If that would leave neither side with an army, the defender keeps one and the
+ * attack fails. The attack takes the region when every defender is killed.
+ *
+ * The number of successful rolls is binomial, so instead of one roll per army a
+ * batch draws it with a single uniform number from a cached cumulative table.
+ * One simulator keeps its buffers between batches and is for one thread only;
+ * the tables are shared and immutable once published.
+ */
+public final class BattleSimulator {
+
+	public static final double ATTACKER_KILL_CHANCE = 0.6;
+	public static final double DEFENDER_KILL_CHANCE = 0.7;
+	public static final double LUCK_MODIFIER = 0.16;
+
+	private static final int MAX_CACHED_ARMIES = 1024; //larger armies roll one by one
+
+	/* cumulative binomial tables by number of armies: cdf[n][k] = P(at most k of n rolls succeed) */
+	private static volatile double[][] attackerCdf = new double[0][];
+	private static volatile double[][] defenderCdf = new double[0][];
+
+	private final Random rand;
+	private int[] rolloutCaptures = new int[0]; //per rollout of the current batch, attacks that took their region
+
+	/**
+	 * @param rand the random number source, used only by this simulator's thread
+	 */
+	public BattleSimulator(Random rand)
+	{
+		this.rand = rand;
+	}
+
+	/**
+	 * Applies the engine's rules to one attack once the rolls are known
+	 * @param attackers : armies attacking
+	 * @param defenders : armies defending
+	 * @param attackerHits : attacking armies whose 60% roll succeeded
+	 * @param defenderHits : defending armies whose 70% roll succeeded
+	 * @return : the attackers lost in the high 32 bits and the defenders lost in the
+	 * 			 low 32 bits. The region is taken if all defenders are lost.
+	 */
+	public static long resolve(int attackers, int defenders, int attackerHits, int defenderHits)
+	{
+		int defendersLost = (int) Math.round(((attackers * ATTACKER_KILL_CHANCE) * (1 - LUCK_MODIFIER)) + (attackerHits * LUCK_MODIFIER));
+		int attackersLost = (int) Math.round(((defenders * DEFENDER_KILL_CHANCE) * (1 - LUCK_MODIFIER)) + (defenderHits * LUCK_MODIFIER));
+		if(attackersLost >= attackers) //nobody left to move in, so the defenders hold
+		{
+			attackersLost = attackers;
+			if(defendersLost >= defenders)
+				defendersLost = Math.max(0, defenders - 1); //an empty region has nobody to keep
+		}
+		defendersLost = Math.min(defendersLost, defenders);
+		return (long) attackersLost << 32 | (defendersLost & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @return : the attackers lost from a result of resolve
+	 */
+	public static int attackersLost(long result)
+	{
+		return (int) (result >>> 32);
+	}
+
+	/**
+	 * @return : the defenders lost from a result of resolve
+	 */
+	public static int defendersLost(long result)
+	{
+		return (int) result;
+	}
+
+	/**
+	 * The outcome of an attack with every roll at its median, so the one a
+	 * single deterministic simulation should assume
+	 * @return : the same as resolve
+	 */
+	public static long typical(int attackers, int defenders)
+	{
+		return resolve(attackers, defenders, medianHits(attackers, true), medianHits(defenders, false));
+	}
+
+	/**
+	 * Plays out one attack with random rolls
+	 * @return : the same as resolve
+	 */
+	public long roll(int attackers, int defenders)
+	{
+		return resolve(attackers, defenders, hits(attackers, true), hits(defenders, false));
+	}
+
+	/**
+	 * Plays out a set of simultaneous attacks on different regions many times.
+	 * Allocates nothing once the outcome and this simulator have held a batch as large.
+	 * @param attackers : armies in each attack
+	 * @param defenders : armies defending the target of each attack
+	 * @param count : the number of attacks, from the start of both arrays
+	 * @param rollouts : how many times to play the set out
+	 * @param outcome : receives the distributions, cleared first
+	 */
+	public void simulate(int[] attackers, int[] defenders, int count, int rollouts, BattleOutcome outcome)
+	{
+		outcome.reset(attackers, defenders, count, rollouts);
+		if(rolloutCaptures.length < rollouts)
+			rolloutCaptures = new int[rollouts];
+		Arrays.fill(rolloutCaptures, 0, rollouts, 0);
+
+		for(int i = 0; i < count; i++)
+		{
+			int a = attackers[i], d = defenders[i];
+			double[] attackTable = a <= MAX_CACHED_ARMIES ? table(a, true) : null;
+			double[] defendTable = d <= MAX_CACHED_ARMIES ? table(d, false) : null;
+			int[] attackerLeft = outcome.attackerSurvivors[i];
+			int[] defenderLeft = outcome.defenderSurvivors[i];
+			int captures = 0;
+			for(int r = 0; r < rollouts; r++)
+			{
+				int attackerHits = attackTable != null ? sample(attackTable) : rollEach(a, ATTACKER_KILL_CHANCE);
+				int defenderHits = defendTable != null ? sample(defendTable) : rollEach(d, DEFENDER_KILL_CHANCE);
+				long result = resolve(a, d, attackerHits, defenderHits);
+				int defendersLost = (int) result;
+				attackerLeft[a - (int) (result >>> 32)]++;
+				defenderLeft[d - defendersLost]++;
+				if(defendersLost >= d)
+				{
+					captures++;
+					rolloutCaptures[r]++;
+				}
+			}
+			outcome.captures[i] = captures;
+		}
+		for(int r = 0; r < rollouts; r++)
+			outcome.capturedTogether[rolloutCaptures[r]]++;
+	}
+
+	private int hits(int armies, boolean attacking)
+	{
+		if(armies > MAX_CACHED_ARMIES)
+			return rollEach(armies, attacking ? ATTACKER_KILL_CHANCE : DEFENDER_KILL_CHANCE);
+		return sample(table(armies, attacking));
+	}
+
+	/**
+	 * @return : the smallest k with u < cdf[k] for a uniform u, found by binary search
+	 */
+	private int sample(double[] cdf)
+	{
+		double u = rand.nextDouble();
+		int low = 0, high = cdf.length - 1;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(u < cdf[middle])
+				high = middle;
+			else
+				low = middle + 1;
+		}
+		return low;
+	}
+
+	private int rollEach(int armies, double chance)
+	{
+		int hits = 0;
+		for(int t = 0; t < armies; t++)
+			if(rand.nextDouble() < chance)
+				hits++;
+		return hits;
+	}
+
+	private static int medianHits(int armies, boolean attacking)
+	{
+		if(armies > MAX_CACHED_ARMIES) //the binomial median is the mean rounded one way or the other
+			return (int) Math.round(armies * (attacking ? ATTACKER_KILL_CHANCE : DEFENDER_KILL_CHANCE));
+		double[] cdf = table(armies, attacking);
+		int k = 0;
+		while(cdf[k] < 0.5)
+			k++;
+		return k;
+	}
+
+	private static double[] table(int armies, boolean attacking)
+	{
+		double[][] tables = attacking ? attackerCdf : defenderCdf;
+		if(armies >= tables.length)
+			tables = grow(armies, attacking);
+		return tables[armies];
+	}
+
+	private static synchronized double[][] grow(int armies, boolean attacking)
+	{
+		double[][] tables = attacking ? attackerCdf : defenderCdf;
+		if(armies < tables.length) //another thread grew it first
+			return tables;
+		int size = Math.min(MAX_CACHED_ARMIES + 1, Math.max(armies + 1, Math.max(64, tables.length * 2)));
+		double[][] grown = Arrays.copyOf(tables, size);
+		double chance = attacking ? ATTACKER_KILL_CHANCE : DEFENDER_KILL_CHANCE;
+		for(int n = tables.length; n < size; n++)
+			grown[n] = cumulative(n, chance);
+		if(attacking)
+			attackerCdf = grown;
+		else
+			defenderCdf = grown;
+		return grown;
+	}
+
+	/**
+	 * Binomial probabilities computed from the mode outwards, so that no term
+	 * underflows the way (1-p)^n does for large n
+	 * @return : cdf[k] = P(X <= k) for X ~ Binomial(n, p), with cdf[n] exactly 1
+	 */
+	static double[] cumulative(int n, double p)
+	{
+		double[] weight = new double[n + 1];
+		int mode = Math.min(n, (int) ((n + 1) * p));
+		double ratio = p / (1 - p);
+		weight[mode] = 1;
+		for(int k = mode; k < n; k++)
+			weight[k + 1] = weight[k] * (n - k) / (k + 1) * ratio;
+		for(int k = mode; k > 0; k--)
+			weight[k - 1] = weight[k] * k / (n - k + 1) / ratio;
+
+		double total = 0;
+		for(int k = 0; k <= n; k++)
+			total += weight[k];
+		double[] cdf = new double[n + 1];
+		double sum = 0;
+		for(int k = 0; k <= n; k++)
+		{
+			sum += weight[k];
+			cdf[k] = Math.min(1, sum / total);
+		}
+		cdf[n] = 1;
+		return cdf;
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package map;
+
+import java.util.Arrays;
+
+/**
+ * How far each of a player's regions is from that player's border, and which
+ * neighbor to move armies through to get there, found with a single
+ * breadth-first search started from every border region at once. It describes
+ * the map as it was when computed, so it is rebuilt every round.
+ */
+public final class FrontierField {
+
+	private final Map map;
+	private final int[] distance; //by dense index: 0 on the border, -1 if not the player's or cut off from the border
+	private final int[] nextHop;  //by dense index: the neighbor one step closer to the border, -1 if none
+
+	private FrontierField(Map map, int[] distance, int[] nextHop)
+	{
+		this.map = map;
+		this.distance = distance;
+		this.nextHop = nextHop;
+	}
+
+	/**
+	 * @param map : the map to measure, normally the visible map
+	 * @param owner : the owner code of the player whose regions to measure, normally MapTopology.ME
+	 * @return : the field for the map as it is now, in time linear in its regions and links
+	 */
+	public static FrontierField compute(Map map, int owner)
+	{
+		MapTopology topology = map.topology;
+		int n = topology.getRegionCount();
+		int[] distance = new int[n];
+		int[] nextHop = new int[n];
+		Arrays.fill(distance, -1);
+		Arrays.fill(nextHop, -1);
+
+		int[] queue = new int[n];
+		int head = 0, tail = 0;
+		for(Region region : map.regions)
+		{
+			if(region.ownedBy(owner) && region.isBorder())
+			{
+				distance[region.index] = 0;
+				queue[tail++] = region.index;
+			}
+		}
+		while(head < tail)
+		{
+			int region = queue[head++];
+			int count = topology.getNeighborCount(region);
+			for(int k = 0; k < count; k++)
+			{
+				int neighbor = topology.getNeighbor(region, k);
+				if(distance[neighbor] != -1 || map.owners[neighbor] != owner || !map.isVisible(neighbor))
+					continue;
+				distance[neighbor] = distance[region] + 1;
+				nextHop[neighbor] = region;
+				queue[tail++] = neighbor;
+			}
+		}
+		return new FrontierField(map, distance, nextHop);
+	}
+
+	/**
+	 * @param region : a Region on the measured map
+	 * @return : the number of links to the nearest border region, 0 on the border,
+	 * 			 or -1 if the region is not the player's or has no path to the border
+	 */
+	public int distance(Region region)
+	{
+		return distance[region.index];
+	}
+
+	/**
+	 * @param region : a Region on the measured map
+	 * @return : the neighbor to move armies to from region to get closer to the
+	 * 			 border, or null if region is on the border or has no path to it
+	 */
+	public Region nextStep(Region region)
+	{
+		int next = nextHop[region.index];
+		if(next == -1)
+			return null;
+		return map.getRegionByIndex(next);
+	}
+}
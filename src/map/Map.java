@@ -15,26 +15,111 @@
 
 package map;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Random;
 
-import bot.BotStarter;
+import metrics.Counter;
+import metrics.Metrics;
 
+/**
+ * A Map is a view over a compact state: the armies and owner code of every
+ * region, held in arrays indexed by the region's dense index, on top of a
+ * MapTopology shared with every copy of the map. Region and SuperRegion
+ * objects read and write through to these arrays, so copying a map only
+ * copies the arrays.
+ */
 public class Map {
 	
-	public LinkedList<Region> regions;
-	public LinkedList<SuperRegion> superRegions;
+	private static final Counter copies = Metrics.counter("map.copies");
+	private static final Counter utilityCalls = Metrics.counter("map.utility.calls");
+	
+	public ArrayList<Region> regions;
+	public ArrayList<SuperRegion> superRegions;
+	
+	final MapTopology topology;
+	int[] armies;  //armies per region, by dense index
+	byte[] owners; //owner code per region, by dense index, see MapTopology.playerCode
+	
+	private Region[] regionViews = new Region[0];            //null where no view has been made yet
+	private BitSet visible = new BitSet();                   //dense indices of the regions on this map
+	private SuperRegion[] superRegionViews = new SuperRegion[0];
+	int version; //bumped when regions or links are added or removed, so views rebuild their cached lists
+	
+	/* Utility bookkeeping for one tracked player, kept up to date on every owner change
+	 * so that Utility is O(1) and a change in ownership costs O(1) to account for.
+	 * The SuperRegion bonus shares are kept in fixed point so that adding and taking
+	 * away the same change always gives back exactly the same total.
+	 */
+	private static final double SHARE_SCALE = 1L << 32;
+	private int trackedPlayer = -1;
+	private int[] presentCount = new int[0]; //per SuperRegion: sub regions on this map
+	private int[] ownedCount = new int[0];   //per SuperRegion: sub regions owned by trackedPlayer
+	private long[] bonusShare = new long[0]; //per SuperRegion: reward * (owned/present)^2, in fixed point
+	private int ownedTotal;
+	private long bonusTotal;
+	
+	/* Border and enemy-adjacent flags per region, by dense index. An owner change
+	 * only recomputes the flags of the region and its neighbors; they are rebuilt
+	 * in full only when regions or links change, which is what version counts.
+	 */
+	private BitSet border = new BitSet();        //a visible neighbor has another owner
+	private BitSet enemyAdjacent = new BitSet(); //a visible neighbor is owned by MapTopology.OPPONENT
+	private int flagsVersion = -1;               //version the flags are up to date for
+	
+	/* Per owner code, a bitmask of the visible regions it owns, one bit per dense
+	 * index, to combine with the neighbor masks of MapTopology.getAdjacency.
+	 * null for codes that never owned anything here.
+	 */
+	private long[][] ownerMasks = new long[4][];
+	
+	/* Zobrist hashes of the visible regions: the XOR of one 64-bit key per region for
+	 * its owner and its armies. hash groups army counts by armyBucket, so it is a key
+	 * for similar states; exactHash keys them exactly. Changing a region XORs its old
+	 * keys out and its new ones in, so both stay up to date in O(1) through every
+	 * change and rollback. Keys are a fixed function of index, owner and armies, so
+	 * copies of a map, and equal states reached in different orders, hash the same.
+	 */
+	private static final int ARMY_BUCKET_EXACT = 32; //army counts below this each get their own bucket
+	private long hash;
+	private long exactHash;
+	
+	/* Change journal: while recording, every change to armies or owners pushes the
+	 * region, which field changed and its old value, so that simulations can be
+	 * rolled back to any mark without the caller saving anything. Open marks are
+	 * kept on a stack; recording stops, and the journal empties, only when the
+	 * outermost one is rolled back or committed.
+	 */
+	private static final int ARMIES = 0, OWNER = 1;
+	private int[] journal = new int[0]; //(index << 1 | field, old value) pairs
+	private int journalSize;            //ints used in journal
+	private int[] marks = new int[0];   //journal sizes of the open marks, innermost last
+	private int markCount;
+	private boolean recording;          //markCount > 0
 	
 	public Map()
 	{
-		this.regions = new LinkedList<Region>();
-		this.superRegions = new LinkedList<SuperRegion>();
+		this(new MapTopology());
 	}
 	
-	public Map(LinkedList<Region> regions, LinkedList<SuperRegion> superRegions)
+	public Map(List<Region> regions, List<SuperRegion> superRegions)
 	{
-		this.regions = regions;
-		this.superRegions = superRegions;
+		this();
+		for(SuperRegion superRegion : superRegions)
+			add(superRegion);
+		for(Region region : regions)
+			add(region);
+	}
+	
+	private Map(MapTopology topology)
+	{
+		this.topology = topology;
+		this.regions = new ArrayList<Region>();
+		this.superRegions = new ArrayList<SuperRegion>();
+		this.armies = new int[topology.getRegionCount()];
+		this.owners = new byte[topology.getRegionCount()];
 	}
 
 	/**
@@ -43,13 +128,44 @@ public class Map {
 	 */
 	public void add(Region region)
 	{
-		for(Region r : regions)
-			if(r.getId() == region.getId())
-			{
-				System.err.println("Region cannot be added: id already exists.");
-				return;
-			}
+		if(region.getId() < 0)
+		{
+			System.err.println("Region cannot be added: negative id.");
+			return;
+		}
+		if(region.map != null)
+		{
+			System.err.println("Region cannot be added: it is already on a map.");
+			return;
+		}
+		SuperRegion superRegion = region.getSuperRegion();
+		int superIndex = superRegion.map == this ? superRegion.index : topology.getSuperRegionIndex(superRegion.getId());
+		if(superIndex == -1)
+		{
+			System.err.println("Region cannot be added: its SuperRegion is not on this map.");
+			return;
+		}
+		int index = topology.getRegionIndex(region.getId());
+		if(index == -1)
+			index = topology.addRegion(region.getId(), superIndex);
+		else if(visible.get(index))
+		{
+			System.err.println("Region cannot be added: id already exists.");
+			return;
+		}
+		ensureCapacity();
+		armies[index] = region.getArmies();
+		owners[index] = (byte) topology.playerCode(region.getPlayerName());
+		regionViews[index] = region;
+		visible.set(index);
+		setOwnerBit(owners[index], index, true);
+		hash ^= regionKey(index);
+		exactHash ^= exactRegionKey(index);
+		region.attach(this, index);
 		regions.add(region);
+		version++;
+		if(trackedPlayer != -1)
+			recount();
 	}
 	
 	/**
@@ -58,97 +174,813 @@ public class Map {
 	 */
 	public void add(SuperRegion superRegion)
 	{
-		for(SuperRegion s : superRegions)
-			if(s.getId() == superRegion.getId())
+		if(superRegion.getId() < 0)
+		{
+			System.err.println("SuperRegion cannot be added: negative id.");
+			return;
+		}
+		if(superRegion.map != null)
+		{
+			System.err.println("SuperRegion cannot be added: it is already on a map.");
+			return;
+		}
+		int index = topology.getSuperRegionIndex(superRegion.getId());
+		if(index == -1)
+			index = topology.addSuperRegion(superRegion.getId(), superRegion.getArmiesReward());
+		else if(index < superRegionViews.length && superRegionViews[index] != null)
+		{
+			System.err.println("SuperRegion cannot be added: id already exists.");
+			return;
+		}
+		if(index >= superRegionViews.length)
+			superRegionViews = Arrays.copyOf(superRegionViews, Math.max(16, index * 2));
+		superRegionViews[index] = superRegion;
+		superRegion.attach(this, index);
+		superRegions.add(superRegion);
+		version++;
+		if(trackedPlayer != -1)
+			recount();
+	}
+	
+	/**
+	 * remove a Region from the map. Its entry in the state arrays is kept, but it
+	 * is no longer returned by getRegion or listed as anyone's neighbor.
+	 * @param region : Region to be removed
+	 * @return : true if the region was part of this map
+	 */
+	public boolean remove(Region region)
+	{
+		int index = getRegionIndex(region.getId());
+		if(index == -1)
+			return false;
+		regions.remove(regionViews[index]);
+		setVisible(index, false);
+		version++;
+		return true;
+	}
+	
+	/**
+	 * Shows exactly the given regions and hides all others, as at the end of an
+	 * update_map. Hidden regions keep their entries in the state arrays and
+	 * their Region objects, so showing them again is cheap.
+	 * @param shown : dense indices of the regions to show, all of them already on this map once
+	 * @return : True if any region was shown or hidden
+	 */
+	public boolean setVisibleRegions(BitSet shown)
+	{
+		BitSet flipped = (BitSet) visible.clone();
+		flipped.xor(shown);
+		if(flipped.isEmpty())
+			return false;
+		for(int index = flipped.nextSetBit(0); index >= 0; index = flipped.nextSetBit(index + 1))
+			setVisible(index, shown.get(index));
+		regions.clear(); //in index order, which is the order the regions were added in
+		for(int index = visible.nextSetBit(0); index >= 0; index = visible.nextSetBit(index + 1))
+			regions.add(regionViews[index]);
+		version++;
+		return true;
+	}
+	
+	/**
+	 * Flips one region's visibility bit, keeping the utility bookkeeping up to date.
+	 * The caller keeps the regions list up to date.
+	 */
+	private void setVisible(int index, boolean shown)
+	{
+		if(shown && regionViews[index] == null)
+			regionViews[index] = new Region(this, index, superRegionViews[topology.getSuperRegionOf(index)]);
+		visible.set(index, shown);
+		setOwnerBit(owners[index], index, shown);
+		hash ^= regionKey(index);
+		exactHash ^= exactRegionKey(index);
+		if(trackedPlayer != -1)
+		{
+			int superRegion = topology.getSuperRegionOf(index);
+			int change = shown ? 1 : -1;
+			presentCount[superRegion] += change;
+			if(owners[index] == trackedPlayer)
 			{
-				System.err.println("SuperRegion cannot be added: id already exists.");
+				ownedCount[superRegion] += change;
+				ownedTotal += change;
+			}
+			updateShare(superRegion);
+		}
+	}
+	
+	/**
+	 * @param index : a dense region index
+	 * @return : True if the region is on this map
+	 */
+	public boolean isVisible(int index)
+	{
+		return visible.get(index);
+	}
+	
+	/**
+	 * Sets a region's owner and armies whether it is on this map or not
+	 * @param index : a dense region index
+	 * @return : True if either of them changed
+	 */
+	public boolean setRegionState(int index, String playerName, int armies)
+	{
+		int owner = topology.playerCode(playerName);
+		if(owners[index] == owner && this.armies[index] == armies)
+			return false;
+		setOwner(index, owner);
+		setArmies(index, armies);
+		return true;
+	}
+	
+	/**
+	 * Sets the armies of a region, journaling the old value while recording
+	 */
+	void setArmies(int index, int armies)
+	{
+		if(recording)
+			push(index << 1 | ARMIES, this.armies[index]);
+		restoreArmies(index, armies);
+	}
+	
+	/**
+	 * Sets the armies of a region without journaling, keeping the hashes up to date
+	 */
+	private void restoreArmies(int index, int armies)
+	{
+		int old = this.armies[index];
+		this.armies[index] = armies;
+		if(visible.get(index) && old != armies)
+		{
+			exactHash ^= exactKey(index, owners[index], old) ^ exactKey(index, owners[index], armies);
+			if(armyBucket(old) != armyBucket(armies))
+				hash ^= zobristKey(index, owners[index], old) ^ zobristKey(index, owners[index], armies);
+		}
+	}
+	
+	/**
+	 * Sets the owner code of a region, journaling the old value while recording
+	 * and keeping the utility bookkeeping up to date
+	 */
+	void setOwner(int index, int owner)
+	{
+		int old = owners[index];
+		if(old == owner)
+			return;
+		if(recording)
+			push(index << 1 | OWNER, old);
+		owners[index] = (byte) owner;
+		if(visible.get(index))
+		{
+			setOwnerBit(old, index, false);
+			setOwnerBit(owner, index, true);
+			hash ^= zobristKey(index, old, armies[index]) ^ zobristKey(index, owner, armies[index]);
+			exactHash ^= exactKey(index, old, armies[index]) ^ exactKey(index, owner, armies[index]);
+		}
+		if(flagsVersion == version)
+			updateFlagsAround(index);
+		if(trackedPlayer != -1 && (old == trackedPlayer || owner == trackedPlayer) && visible.get(index))
+		{
+			int superRegion = topology.getSuperRegionOf(index);
+			if(owner == trackedPlayer)
+			{
+				ownedCount[superRegion]++;
+				ownedTotal++;
+			}
+			else
+			{
+				ownedCount[superRegion]--;
+				ownedTotal--;
+			}
+			updateShare(superRegion);
+		}
+	}
+	
+	private void setOwnerBit(int owner, int index, boolean on)
+	{
+		if(owner >= ownerMasks.length)
+			ownerMasks = Arrays.copyOf(ownerMasks, owner + 1);
+		long[] mask = ownerMasks[owner];
+		if(mask == null)
+		{
+			if(!on)
 				return;
+			mask = ownerMasks[owner] = new long[(armies.length + 63) >>> 6];
+		}
+		if(on)
+			mask[index >>> 6] |= 1L << index;
+		else
+			mask[index >>> 6] &= ~(1L << index);
+	}
+	
+	/**
+	 * @param index : the dense index of a region
+	 * @return : the owner code of the region, see MapTopology
+	 */
+	public int getOwner(int index)
+	{
+		return owners[index];
+	}
+	
+	/**
+	 * @param index : the dense index of a Region on this map
+	 * @param owner : an owner code
+	 * @param out : receives the dense indices of the neighbors on this map that
+	 * 				owner holds, in index order; must have room for all neighbors
+	 * @return : the number of such neighbors
+	 */
+	public int neighborsOwnedBy(int index, int owner, int[] out)
+	{
+		long[] mask = owner < ownerMasks.length ? ownerMasks[owner] : null;
+		if(mask == null)
+			return 0;
+		Adjacency adjacency = topology.getAdjacency();
+		int count = 0;
+		for(int w = 0; w < adjacency.words(); w++)
+		{
+			long bits = adjacency.mask(index, w) & mask[w];
+			while(bits != 0)
+			{
+				out[count++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
 			}
-		superRegions.add(superRegion);
+		}
+		return count;
+	}
+	
+	/**
+	 * @param index : the dense index of a Region on this map
+	 * @param owner : an owner code
+	 * @return : True if owner holds any neighbor of the region on this map
+	 */
+	public boolean hasNeighborOwnedBy(int index, int owner)
+	{
+		long[] mask = owner < ownerMasks.length ? ownerMasks[owner] : null;
+		if(mask == null)
+			return false;
+		Adjacency adjacency = topology.getAdjacency();
+		for(int w = 0; w < adjacency.words(); w++)
+			if((adjacency.mask(index, w) & mask[w]) != 0)
+				return true;
+		return false;
+	}
+	
+	/**
+	 * Recomputes the flags of a region whose owner changed and of its neighbors
+	 */
+	private void updateFlagsAround(int index)
+	{
+		updateFlags(index);
+		int count = topology.getNeighborCount(index);
+		for(int k = 0; k < count; k++)
+		{
+			int neighbor = topology.getNeighbor(index, k);
+			if(visible.get(neighbor))
+				updateFlags(neighbor);
+		}
+	}
+	
+	private void updateFlags(int index)
+	{
+		int owner = owners[index];
+		boolean isBorder = false, nextToEnemy = false;
+		int count = topology.getNeighborCount(index);
+		for(int k = 0; k < count; k++)
+		{
+			int neighbor = topology.getNeighbor(index, k);
+			if(!visible.get(neighbor))
+				continue;
+			if(owners[neighbor] != owner)
+				isBorder = true;
+			if(owners[neighbor] == MapTopology.OPPONENT)
+				nextToEnemy = true;
+		}
+		border.set(index, isBorder);
+		enemyAdjacent.set(index, nextToEnemy);
+	}
+	
+	/**
+	 * Brings the flags up to date after regions or links changed
+	 */
+	private void ensureFlags()
+	{
+		if(flagsVersion == version)
+			return;
+		border.clear();
+		enemyAdjacent.clear();
+		for(int index = visible.nextSetBit(0); index >= 0; index = visible.nextSetBit(index + 1))
+			updateFlags(index);
+		flagsVersion = version;
+	}
+	
+	/**
+	 * @param index : the dense index of a Region on this map
+	 * @return : True if a neighbor on this map has another owner, see Region.isBorder
+	 */
+	public boolean isBorder(int index)
+	{
+		ensureFlags();
+		return border.get(index);
+	}
+	
+	/**
+	 * @param index : the dense index of a Region on this map
+	 * @return : True if a neighbor on this map is owned by MapTopology.OPPONENT
+	 */
+	public boolean isEnemyAdjacent(int index)
+	{
+		ensureFlags();
+		return enemyAdjacent.get(index);
+	}
+	
+	private void updateShare(int superRegion)
+	{
+		bonusTotal -= bonusShare[superRegion];
+		bonusShare[superRegion] = share(superRegion, ownedCount[superRegion]);
+		bonusTotal += bonusShare[superRegion];
+	}
+	
+	/**
+	 * @return : the SuperRegion's part of the Utility bonus when owned of its regions are held, in fixed point
+	 */
+	private long share(int superRegion, int owned)
+	{
+		int present = presentCount[superRegion];
+		if(present == 0)
+			return 0;
+		double ratio = ((double) owned) / present;
+		return Math.round((ratio * ratio) * topology.getArmiesReward(superRegion) * SHARE_SCALE);
+	}
+	
+	private void push(int entry, int oldValue)
+	{
+		if(journalSize == journal.length)
+			journal = Arrays.copyOf(journal, Math.max(64, journal.length * 2));
+		journal[journalSize++] = entry;
+		journal[journalSize++] = oldValue;
+	}
+	
+	/**
+	 * Starts recording changes to this map, if it is not already, and marks the
+	 * current state so it can be returned to with rollback. Marks nest: rolling
+	 * back to an outer mark also undoes everything after the inner ones.
+	 * @return : the mark to pass to rollback or commit
+	 */
+	public int mark()
+	{
+		if(markCount == marks.length)
+			marks = Arrays.copyOf(marks, Math.max(8, marks.length * 2));
+		marks[markCount++] = journalSize;
+		recording = true;
+		return journalSize;
+	}
+	
+	/**
+	 * Undoes every change made since the given mark and closes it, along with
+	 * any marks opened after it. Rolling back the outermost mark stops recording.
+	 * @param mark : a value returned by mark()
+	 */
+	public void rollback(int mark)
+	{
+		recording = false;
+		while(journalSize > mark)
+		{
+			int oldValue = journal[--journalSize];
+			int entry = journal[--journalSize];
+			if((entry & 1) == ARMIES)
+				restoreArmies(entry >>> 1, oldValue);
+			else
+				setOwner(entry >>> 1, oldValue);
+		}
+		close(mark);
+	}
+	
+	/**
+	 * Keeps every change made since the given mark and closes it, along with any
+	 * marks opened after it. The changes stay journaled for the marks still open,
+	 * so rolling back an outer mark still undoes them; committing the outermost
+	 * mark forgets them and stops recording.
+	 * @param mark : a value returned by mark()
+	 */
+	public void commit(int mark)
+	{
+		close(mark);
+	}
+	
+	/**
+	 * Pops the given mark, and every mark opened after it, off the stack of open
+	 * marks. Marks at the same journal position close innermost first.
+	 */
+	private void close(int mark)
+	{
+		while(markCount > 0 && marks[markCount - 1] > mark)
+			markCount--;
+		if(markCount > 0 && marks[markCount - 1] == mark)
+			markCount--;
+		recording = markCount > 0;
+		if(!recording)
+			journalSize = 0;
+	}
+	
+	/**
+	 * A similarity key, not the identity of a state: army counts of 32 and up are
+	 * grouped into ranges (see armyBucket), so maps whose stacks differ only within
+	 * those ranges, such as 40 and 45 armies, have the same hash. Use it only for
+	 * what does not depend on exact army counts; getExactStateHash keys exact states.
+	 * @return : the Zobrist hash of the visible regions with bucketed armies, kept up to date on every change
+	 */
+	public long getStateHash()
+	{
+		return hash;
+	}
+	
+	/**
+	 * A key for caching what is worked out from this map's state. Maps with the
+	 * same visible regions, owners and army counts have the same hash; any other
+	 * two differ except with a chance of about 2^-64.
+	 * @return : the Zobrist hash of the visible regions with exact armies, kept up to date on every change
+	 */
+	public long getExactStateHash()
+	{
+		return exactHash;
+	}
+	
+	/**
+	 * @return : the hash getStateHash should give, worked out from scratch in
+	 * 			 O(regions), for checking it
+	 */
+	public long computeStateHash()
+	{
+		long fresh = 0;
+		for(int index = visible.nextSetBit(0); index >= 0; index = visible.nextSetBit(index + 1))
+			fresh ^= regionKey(index);
+		return fresh;
+	}
+	
+	/**
+	 * @return : the hash getExactStateHash should give, worked out from scratch in
+	 * 			 O(regions), for checking it
+	 */
+	public long computeExactStateHash()
+	{
+		long fresh = 0;
+		for(int index = visible.nextSetBit(0); index >= 0; index = visible.nextSetBit(index + 1))
+			fresh ^= exactRegionKey(index);
+		return fresh;
+	}
+	
+	/**
+	 * The similarity key of what a search from one region sees: the keys of
+	 * getStateHash, army counts bucketed the same way, for the region and its
+	 * visible neighbors only
+	 * @param index : a dense region index
+	 * @return : the bucketed Zobrist hash of the region and its visible neighbors, in O(degree)
+	 */
+	public long getNeighborhoodHash(int index)
+	{
+		return neighborhoodHash(index, false);
+	}
+	
+	/**
+	 * @param index : a dense region index
+	 * @return : the exact Zobrist hash of the region and its visible neighbors, with the
+	 * 			 keys of getExactStateHash, in O(degree)
+	 */
+	public long getExactNeighborhoodHash(int index)
+	{
+		return neighborhoodHash(index, true);
+	}
+	
+	private long neighborhoodHash(int index, boolean exact)
+	{
+		Adjacency adjacency = topology.getAdjacency();
+		long local = 0;
+		if(visible.get(index))
+			local = exact ? exactRegionKey(index) : regionKey(index);
+		for(int k = adjacency.start(index); k < adjacency.end(index); k++)
+		{
+			int neighbor = adjacency.target(k);
+			if(visible.get(neighbor))
+				local ^= exact ? exactRegionKey(neighbor) : regionKey(neighbor);
+		}
+		return local;
+	}
+	
+	private long regionKey(int index)
+	{
+		return zobristKey(index, owners[index], armies[index]);
+	}
+	
+	private long exactRegionKey(int index)
+	{
+		return exactKey(index, owners[index], armies[index]);
+	}
+	
+	/**
+	 * Army counts are exact below ARMY_BUCKET_EXACT and, above it, are grouped
+	 * four buckets to each doubling, so that stacks differing by a few percent hash
+	 * the same. The searches treat such stacks alike anyway.
+	 * @return : the bucket of an army count, under 2^24
+	 */
+	static int armyBucket(int armies)
+	{
+		if(armies < ARMY_BUCKET_EXACT)
+			return armies & 0xFFFFFF; //negative counts only appear mid-simulation, and stay distinct
+		int log = 31 - Integer.numberOfLeadingZeros(armies);
+		return ARMY_BUCKET_EXACT + ((log - 5) << 2 | (armies >>> (log - 2)) & 3);
+	}
+	
+	/**
+	 * The Zobrist key of one region state. Rather than a table of random keys per
+	 * region, owner and bucket, which would be megabytes on large maps, the key is
+	 * the SplitMix64 finalizer of the three packed together: a bijection, so
+	 * distinct states never share a key, and as good as random for hashing.
+	 */
+	private static long zobristKey(int index, int owner, int armies)
+	{
+		return mix(((long) index << 32 | (long) (owner & 0xFF) << 24 | armyBucket(armies)) * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L);
+	}
+	
+	/**
+	 * The key of one region state with its exact army count, made the same way as
+	 * zobristKey. It is a bijection for the fewer than 2^24 regions a map can have.
+	 */
+	private static long exactKey(int index, int owner, int armies)
+	{
+		return mix(((long) index << 40 | (long) (owner & 0xFF) << 32 | (armies & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L + 0x2545F4914F6CDD1DL);
+	}
+	
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Starts keeping Utility up to date for the given player. Copies of this map keep tracking the same player.
+	 * @param playerName : the player Utility will be asked about, normally the bot itself
+	 */
+	public void setTrackedPlayer(String playerName)
+	{
+		setTrackedPlayer(topology.playerCode(playerName));
+	}
+	
+	/**
+	 * @param owner : the owner code of the player to track, normally MapTopology.ME
+	 */
+	public void setTrackedPlayer(int owner)
+	{
+		trackedPlayer = owner;
+		recount();
+	}
+	
+	/**
+	 * Rebuilds the utility bookkeeping from scratch
+	 */
+	private void recount()
+	{
+		int count = topology.getSuperRegionCount();
+		presentCount = new int[count];
+		ownedCount = new int[count];
+		bonusShare = new long[count];
+		ownedTotal = 0;
+		bonusTotal = 0;
+		for(Region region : regions)
+		{
+			int superRegion = topology.getSuperRegionOf(region.index);
+			presentCount[superRegion]++;
+			if(owners[region.index] == trackedPlayer)
+			{
+				ownedCount[superRegion]++;
+				ownedTotal++;
+			}
+		}
+		for(int superRegion = 0; superRegion < count; superRegion++)
+			updateShare(superRegion);
 	}
 	
 	/**
-	 * @return : a new Map object exactly the same as this one
+	 * Grows the state arrays to hold every region of the topology. Only the map
+	 * being built during setup ever needs this.
+	 */
+	private void ensureCapacity()
+	{
+		int count = topology.getRegionCount();
+		if(count <= armies.length)
+			return;
+		int size = Math.max(16, Math.max(count, armies.length * 2));
+		armies = Arrays.copyOf(armies, size);
+		owners = Arrays.copyOf(owners, size);
+		regionViews = Arrays.copyOf(regionViews, size);
+		for(int owner = 0; owner < ownerMasks.length; owner++)
+			if(ownerMasks[owner] != null)
+				ownerMasks[owner] = Arrays.copyOf(ownerMasks[owner], (size + 63) >>> 6);
+	}
+	
+	/**
+	 * @return : a new Map object exactly the same as this one, sharing its topology.
+	 * 			 Only reads this map, so several threads may copy the same map at once.
 	 */
 	public Map getMapCopy() {
-		Map newMap = new Map();
-		for(int i = 0; i < superRegions.size(); i++) //copy superRegions
+		if(Metrics.ENABLED)
+			copies.increment();
+		Map newMap = new Map(topology);
+		newMap.armies = armies.clone();
+		newMap.owners = owners.clone();
+		newMap.hash = hash;
+		newMap.exactHash = exactHash;
+		newMap.copyTracking(this);
+		newMap.regionViews = new Region[regionViews.length];
+		newMap.visible.or(visible);
+		newMap.ownerMasks = new long[ownerMasks.length][];
+		for(int owner = 0; owner < ownerMasks.length; owner++)
+			if(ownerMasks[owner] != null)
+				newMap.ownerMasks[owner] = ownerMasks[owner].clone();
+		if(flagsVersion == version)
 		{
-			SuperRegion sr = superRegions.get(i);
-			SuperRegion newSuperRegion = new SuperRegion(sr.getId(), sr.getArmiesReward());
-			newMap.add(newSuperRegion);
+			newMap.border.or(border);
+			newMap.enemyAdjacent.or(enemyAdjacent);
+			newMap.flagsVersion = newMap.version;
 		}
-		for(int i = 0; i < regions.size(); i++) //copy regions
+		newMap.superRegionViews = new SuperRegion[superRegionViews.length];
+		for(SuperRegion sr : superRegions) //copy superRegion views
 		{
-			Region r = regions.get(i);
-			Region newRegion = new Region(r.getId(), newMap.getSuperRegion(r.getSuperRegion().getId()), r.getPlayerName(), r.getArmies());
-			newMap.add(newRegion);
+			SuperRegion newSuperRegion = new SuperRegion(newMap, sr.index);
+			newMap.superRegionViews[sr.index] = newSuperRegion;
+			newMap.superRegions.add(newSuperRegion);
 		}
-		for(int i = 0; i <regions.size(); i++) //add neighbors to copied regions
+		for(Region r : regions) //copy region views
 		{
-			Region r = regions.get(i);
-			Region newRegion = newMap.getRegion(r.getId());
-			for(Region neighbor : r.getNeighbors())
-				newRegion.addNeighbor(newMap.getRegion(neighbor.getId()));
+			Region newRegion = new Region(newMap, r.index, newMap.superRegionViews[r.getSuperRegion().index]);
+			newMap.regionViews[r.index] = newRegion;
+			newMap.regions.add(newRegion);
 		}
 		return newMap;
 	}
 	
+	/**
+	 * Overwrites the armies, owners and visible regions of this map with those of
+	 * the given map, reusing this map's Region and SuperRegion objects. Both maps
+	 * must be copies of the same map, so that they share a topology.
+	 * @param other : the map to copy the state of
+	 */
+	public void copyStateFrom(Map other)
+	{
+		if(other.topology != topology)
+			throw new IllegalArgumentException("Maps do not share a topology");
+		if(!visible.equals(other.visible))
+			setVisibleRegions(other.visible);
+		System.arraycopy(other.armies, 0, armies, 0, armies.length);
+		System.arraycopy(other.owners, 0, owners, 0, owners.length);
+		hash = other.hash;
+		exactHash = other.exactHash;
+		copyTracking(other);
+		if(ownerMasks.length < other.ownerMasks.length)
+			ownerMasks = Arrays.copyOf(ownerMasks, other.ownerMasks.length);
+		for(int owner = 0; owner < ownerMasks.length; owner++)
+		{
+			long[] mask = owner < other.ownerMasks.length ? other.ownerMasks[owner] : null;
+			if(mask == null)
+				ownerMasks[owner] = null;
+			else if(ownerMasks[owner] == null)
+				ownerMasks[owner] = mask.clone();
+			else
+				System.arraycopy(mask, 0, ownerMasks[owner], 0, mask.length);
+		}
+		if(other.flagsVersion == other.version)
+		{
+			border.clear();
+			border.or(other.border);
+			enemyAdjacent.clear();
+			enemyAdjacent.or(other.enemyAdjacent);
+			flagsVersion = version;
+		}
+		else
+			flagsVersion = -1;
+		journalSize = 0; //the old journal does not apply to the new state
+		markCount = 0;
+		recording = false;
+	}
+	
+	private void copyTracking(Map other)
+	{
+		trackedPlayer = other.trackedPlayer;
+		if(presentCount.length != other.presentCount.length)
+		{
+			presentCount = other.presentCount.clone();
+			ownedCount = other.ownedCount.clone();
+			bonusShare = other.bonusShare.clone();
+		}
+		else
+		{
+			System.arraycopy(other.presentCount, 0, presentCount, 0, presentCount.length);
+			System.arraycopy(other.ownedCount, 0, ownedCount, 0, ownedCount.length);
+			System.arraycopy(other.bonusShare, 0, bonusShare, 0, bonusShare.length);
+		}
+		ownedTotal = other.ownedTotal;
+		bonusTotal = other.bonusTotal;
+	}
+	
+	/**
+	 * @return : the regions, SuperRegions and links of this map, shared by all its copies
+	 */
+	public MapTopology getTopology() {
+		return topology;
+	}
+	
 	/**
 	 * @return : the list of all Regions in this map
 	 */
-	public LinkedList<Region> getRegions() {
+	public ArrayList<Region> getRegions() {
 		return regions;
 	}
 	
 	/**
 	 * @return : the list of all SuperRegions in this map
 	 */
-	public LinkedList<SuperRegion> getSuperRegions() {
+	public ArrayList<SuperRegion> getSuperRegions() {
 		return superRegions;
 	}
 	
 	/**
 	 * @param id : a Region id number
-	 * @return : the matching Region object
+	 * @return : the matching Region object, or null if it is not on this map
 	 */
 	public Region getRegion(int id)
 	{
-		for(Region region : regions)
-			if(region.getId() == id)
-				return region;
-		return null;
+		int index = getRegionIndex(id);
+		if(index == -1)
+			return null;
+		return regionViews[index];
+	}
+	
+	/**
+	 * @param index : a dense region index
+	 * @return : the matching Region object, or null if it is not on this map
+	 */
+	public Region getRegionByIndex(int index)
+	{
+		if(!visible.get(index))
+			return null;
+		return regionViews[index];
 	}
 	
 	/**
 	 * @param id : a SuperRegion id number
-	 * @return : the matching SuperRegion object
+	 * @return : the matching SuperRegion object, or null if it is not on this map
 	 */
 	public SuperRegion getSuperRegion(int id)
 	{
-		for(SuperRegion superRegion : superRegions)
-			if(superRegion.getId() == id)
-				return superRegion;
-		return null;
+		int index = topology.getSuperRegionIndex(id);
+		if(index == -1 || index >= superRegionViews.length)
+			return null;
+		return superRegionViews[index];
+	}
+	
+	/**
+	 * @param id : a Region id number
+	 * @return : the dense index (0 to getTopology().getRegionCount()-1) of the Region, or -1 if it is not on this map.
+	 * 			 Use this instead of the raw id to size and index per-region arrays.
+	 */
+	public int getRegionIndex(int id)
+	{
+		int index = topology.getRegionIndex(id);
+		if(index == -1 || !visible.get(index))
+			return -1;
+		return index;
 	}
 	
 	public String getMapString()
 	{
-		String mapString = "";
+		StringBuilder mapString = new StringBuilder(regions.size() * 16);
 		for(Region region : regions)
 		{
-			mapString = mapString.concat(region.getId() + ";" + region.getPlayerName() + ";" + region.getArmies() + " ");
+			mapString.append(region.getId()).append(';').append(region.getPlayerName()).append(';').append(region.getArmies()).append(' ');
 		}
-		return mapString;
+		return mapString.toString();
 	}	
 	
 	
 	/**
 	 * @param myName
 	 * @param opponent
-	 * @return the utility value of the map
+	 * @return the utility value of the map. O(1) when myName is the tracked player, see setTrackedPlayer
 	 */
 	public double Utility(String myName, String opponent){
+		return Utility(topology.playerCode(myName), topology.playerCode(opponent));
+	}
+	
+	/**
+	 * @param me : the owner code of the player to score, normally MapTopology.ME
+	 * @param opponent : the owner code of their opponent
+	 * @return the utility value of the map. O(1) when me is the tracked player, see setTrackedPlayer
+	 */
+	public double Utility(int me, int opponent){
+		if(Metrics.ENABLED)
+			utilityCalls.increment();
+		if(trackedPlayer != -1 && me == trackedPlayer)
+			return ownedTotal + bonusTotal / SHARE_SCALE;
+		
+
 		//Here are my thoughts:
 		//going through each superregion and its subregions is O(n) where n is the number of total regions
 		//its good to own a region, so add one
@@ -160,10 +992,11 @@ public class Map {
 		int ownedRegions;
 		for(SuperRegion sr: superRegions){
 			
+			if(sr.getSubRegions().isEmpty()) continue; //none of it is on this map
 			ownedRegions = 0; //counter for current sr
 			
 			for(Region r: sr.getSubRegions()){
-				if(r.ownedByPlayer(myName))ownedRegions++;
+				if(r.ownedBy(me))ownedRegions++;
 			}
 			util += ownedRegions; //how many we own in sr 
 			ratio = ((double)ownedRegions)/sr.getSubRegions().size();
@@ -174,13 +1007,42 @@ public class Map {
 		return util;
 	}
 	
+	/**
+	 * @param region : a Region on this map
+	 * @param playerName : a possible new owner for it
+	 * @return : how much Utility for the tracked player would change if region were owned by playerName
+	 */
+	public double utilityDelta(Region region, String playerName)
+	{
+		return utilityDelta(region, topology.playerCode(playerName));
+	}
+	
+	/**
+	 * @param region : a Region on this map
+	 * @param owner : the owner code of a possible new owner for it
+	 * @return : how much Utility for the tracked player would change if region were owned by owner
+	 */
+	public double utilityDelta(Region region, int owner)
+	{
+		if(trackedPlayer == -1)
+			throw new IllegalStateException("No player is tracked on this map");
+		int index = region.index;
+		int old = owners[index];
+		if(old == owner || (old != trackedPlayer && owner != trackedPlayer) || !visible.get(index))
+			return 0;
+		int superRegion = topology.getSuperRegionOf(index);
+		int change = owner == trackedPlayer ? 1 : -1;
+		return change + (share(superRegion, ownedCount[superRegion] + change) - bonusShare[superRegion]) / SHARE_SCALE;
+	}
+	
 	/**
 	 * Randomly moves an army from one of the regions that has been deployed to
 	 * to another border region
 	 * @param ids The list of region ids corresponding to the regions deployed to
 	 * @param deployed The number of armies deployed so far to each region
+	 * @param rand The calling search's random number source
 	 */
-	public void getRandomSuccessor(int[] ids, int[] deployed)
+	public void getRandomSuccessor(int[] ids, int[] deployed, Random rand)
 	{
 		//Make sure at least one deployment was made so far
 		boolean deployMade = false;
@@ -190,9 +1052,6 @@ public class Map {
 		}
 		if(!deployMade || ids.length <= 1) return;
 		
-		//Create a random number stream
-		Random rand = new Random(System.currentTimeMillis());
-		
 		//Get a region to move from, making sure that it has at least one deployed already
 		int from, to;
 		do
@@ -213,46 +1072,91 @@ public class Map {
 		this.getRegion(ids[to]).setArmies(this.getRegion(ids[to]).getArmies() + 1);
 	}
 	
-	/** Simulates the outcome of a set of attacks
+	/** Simulates a set of deployments. Use mark and rollback to undo them.
+	 * @param ids The ids of the regions deployed to
+	 * @param deployments The number of armies deployed to each region
+	 */
+	public void simulateDeployments(int[] ids, int[] deployments)
+	{
+		for(int i = 0; i < ids.length; i++)
+		{
+			if(deployments[i] != 0)
+			{
+				int index = getRegionIndex(ids[i]);
+				setArmies(index, armies[index] + deployments[i]);
+			}
+		}
+	}
+	
+	/** Simulates a transfer between two regions of the same player. Use mark and rollback to undo it.
+	 * @param fromId The region transferring from
+	 * @param toId The region transferring to
+	 * @param armies The number of armies to move
+	 */
+	public void simulateTransfer(int fromId, int toId, int armies)
+	{
+		int from = getRegionIndex(fromId);
+		int to = getRegionIndex(toId);
+		setArmies(from, this.armies[from] - armies);
+		setArmies(to, this.armies[to] + armies);
+	}
+	
+	/** Simulates the outcome of a set of attacks. Use mark and rollback to undo them.
 	 * @param fromId The region attacking from
 	 * @param attacks The number of armies to attack each bordering
 	 * @param toIds The ids of each border region
 	 * @param playerName The current player's name
-	 * TODO: make accurate
 	 */
 	public void simulateAttacks(int fromId, int[] attacks, int[] toIds, String playerName)
+	{
+		simulateAttacks(fromId, attacks, toIds, topology.playerCode(playerName));
+	}
+	
+	/** Simulates the outcome of a set of attacks. Use mark and rollback to undo them.
+	 * Each attack follows the engine's combat rules with every roll at its median,
+	 * so the same attacks always give the same map.
+	 * @param fromId The region attacking from
+	 * @param attacks The number of armies to attack each bordering
+	 * @param toIds The ids of each border region
+	 * @param owner The current player's owner code
+	 */
+	public void simulateAttacks(int fromId, int[] attacks, int[] toIds, int owner)
+	{
+		simulateAttacks(fromId, attacks, toIds, owner, null);
+	}
+	
+	/** Plays out a set of attacks once, with the engine's random rolls. Use mark and rollback to undo them.
+	 * @param fromId The region attacking from
+	 * @param attacks The number of armies to attack each bordering
+	 * @param toIds The ids of each border region
+	 * @param owner The current player's owner code
+	 * @param battles The simulator to roll with, or null for the median outcome of every attack
+	 */
+	public void simulateAttacks(int fromId, int[] attacks, int[] toIds, int owner, BattleSimulator battles)
 	{
 		if(attacks.length != toIds.length) return;
-		int attackers, defenders;
+		int from = getRegionIndex(fromId);
 		
 		for(int i = 0; i < attacks.length; i++)
 		{
-			if(toIds[i] != fromId)
+			if(toIds[i] != fromId && attacks[i] > 0)
 			{
-				attackers = attacks[i];
-				defenders = this.getRegion(toIds[i]).getArmies();
-				int attackersDestroyed = (int) (.7 * defenders); //note: these are expected values TODO: +1?
-				int defendersDestroyed = (int)(.6 * attackers);  //true value is Gaussian, centered here
+				int to = getRegionIndex(toIds[i]);
+				int attackers = attacks[i];
+				int defenders = this.armies[to];
+				long result = battles == null ? BattleSimulator.typical(attackers, defenders) : battles.roll(attackers, defenders);
+				int attackersDestroyed = BattleSimulator.attackersLost(result);
+				int defendersDestroyed = BattleSimulator.defendersLost(result);
 				
-				if(defendersDestroyed >= defenders){//we predict a win, so its ours. also update armies
-					this.getRegion(toIds[i]).setPlayerName(playerName);
-					this.getRegion(toIds[i]).setArmies(attackers-attackersDestroyed);
-					this.getRegion(fromId).setArmies(this.getRegion(fromId).getArmies() - attackers);
-				}else{ //we predict loss for that attack. Just update armies
-					attackersDestroyed = Math.min(attackers, attackersDestroyed); //enemy cannot defeat what did not attack
-					//defendersDestroyed ought to be fine, as if would have caught it
-					this.getRegion(fromId).setArmies(this.getRegion(fromId).getArmies() - attackersDestroyed);
-					this.getRegion(toIds[i]).setArmies(this.getRegion(toIds[i]).getArmies()-defendersDestroyed);
+				if(defendersDestroyed >= defenders){ //taken, the survivors move in
+					setOwner(to, owner);
+					setArmies(to, attackers - attackersDestroyed);
+					setArmies(from, this.armies[from] - attackers);
+				}else{ //held, both sides just lose armies
+					setArmies(from, this.armies[from] - attackersDestroyed);
+					setArmies(to, defenders - defendersDestroyed);
 				}
 			}
 		}
 	}
-	
-	public void undoSimulation(int fromId, int[] attacks,int[] defenders, int[] toIds,String[]names, int totalOnAttacker){
-		for(int i=0; i < toIds.length; i++){
-			this.getRegion(toIds[i]).setArmies(defenders[i]);
-			this.getRegion(toIds[i]).setPlayerName(names[i]);
-		}
-		this.getRegion(fromId).setArmies(totalOnAttacker);
-	}
 }
\ No newline at end of file
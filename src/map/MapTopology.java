@@ -0,0 +1,337 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package map;
+
+import java.util.Arrays;
+
+/**
+ * The static part of a map: which regions and SuperRegions exist, how they are
+ * connected, and the table of player names used to encode region owners as small
+ * integers. It is filled in while the setup_map lines are read and never changes
+ * afterwards, so every copy of a Map shares the same MapTopology and only copies
+ * its armies and owners arrays.
+ *
+ * Regions and SuperRegions are referred to by their dense index (0 to count-1),
+ * which is also the position of their entry in every per-region state array.
+ */
+public final class MapTopology {
+
+	public static final int UNKNOWN = 0;  //owner code of "unknown"
+	public static final int NEUTRAL = 1;  //owner code of "neutral"
+	public static final int ME = 2;       //owner code of the bot itself, once named with setPlayerName
+	public static final int OPPONENT = 3; //owner code of the opponent, once named with setPlayerName
+
+	private int regionCount;
+	private int[] regionIds = new int[16];
+	private int[] regionSuperRegion = new int[16];
+	private int[][] neighbors = new int[16][];
+	private int[] neighborCount = new int[16];
+
+	private int superRegionCount;
+	private int[] superRegionIds = new int[16];
+	private int[] superRegionRewards = new int[16];
+	private int[][] subRegions = new int[16][];
+	private int[] subRegionCount = new int[16];
+
+	/* id -> dense index, -1 where no such id exists. Ids given by the engine are
+	 * not guaranteed to be contiguous, so these are sized by the largest id seen.
+	 */
+	private int[] regionIndex = emptyIndex(16);
+	private int[] superRegionIndex = emptyIndex(16);
+
+	private volatile RegionDistances distances; //built on first use, dropped when regions or links are added
+	private volatile Adjacency adjacency;       //likewise
+
+	private volatile String[] playerNames = {"unknown", "neutral", null, null}; //ME and OPPONENT are named at settings time
+
+	/**
+	 * @param id : id of the new SuperRegion
+	 * @param armiesReward : its bonus
+	 * @return : the dense index of the new SuperRegion
+	 */
+	int addSuperRegion(int id, int armiesReward)
+	{
+		int index = superRegionCount++;
+		if(index == superRegionIds.length)
+		{
+			int size = index * 2;
+			superRegionIds = Arrays.copyOf(superRegionIds, size);
+			superRegionRewards = Arrays.copyOf(superRegionRewards, size);
+			subRegions = Arrays.copyOf(subRegions, size);
+			subRegionCount = Arrays.copyOf(subRegionCount, size);
+		}
+		superRegionIds[index] = id;
+		superRegionRewards[index] = armiesReward;
+		subRegions[index] = new int[4];
+		superRegionIndex = ensureIndex(superRegionIndex, id);
+		superRegionIndex[id] = index;
+		return index;
+	}
+
+	/**
+	 * @param id : id of the new Region
+	 * @param superRegion : dense index of the SuperRegion it belongs to
+	 * @return : the dense index of the new Region
+	 */
+	int addRegion(int id, int superRegion)
+	{
+		int index = regionCount++;
+		if(index == regionIds.length)
+		{
+			int size = index * 2;
+			regionIds = Arrays.copyOf(regionIds, size);
+			regionSuperRegion = Arrays.copyOf(regionSuperRegion, size);
+			neighbors = Arrays.copyOf(neighbors, size);
+			neighborCount = Arrays.copyOf(neighborCount, size);
+		}
+		regionIds[index] = id;
+		regionSuperRegion[index] = superRegion;
+		neighbors[index] = new int[4];
+		regionIndex = ensureIndex(regionIndex, id);
+		regionIndex[id] = index;
+
+		if(subRegionCount[superRegion] == subRegions[superRegion].length)
+			subRegions[superRegion] = Arrays.copyOf(subRegions[superRegion], subRegionCount[superRegion] * 2);
+		subRegions[superRegion][subRegionCount[superRegion]++] = index;
+		distances = null;
+		adjacency = null;
+		return index;
+	}
+
+	/**
+	 * Links two regions in both directions, ignoring links that already exist
+	 */
+	void addNeighbor(int a, int b)
+	{
+		if(a == b || linked(a, b)) //a scan, since the adjacency is rebuilt after every change
+			return;
+		link(a, b);
+		link(b, a);
+		distances = null;
+		adjacency = null;
+	}
+
+	private void link(int from, int to)
+	{
+		if(neighborCount[from] == neighbors[from].length)
+			neighbors[from] = Arrays.copyOf(neighbors[from], neighborCount[from] * 2);
+		neighbors[from][neighborCount[from]++] = to;
+	}
+
+	/**
+	 * @return : True if the regions with dense indices a and b are adjacent, in O(1)
+	 * 			 from the neighbor masks of getAdjacency
+	 */
+	public boolean isNeighbor(int a, int b)
+	{
+		return getAdjacency().isNeighbor(a, b);
+	}
+
+	private boolean linked(int a, int b)
+	{
+		int[] adjacent = neighbors[a];
+		for(int i = 0; i < neighborCount[a]; i++)
+			if(adjacent[i] == b)
+				return true;
+		return false;
+	}
+
+	/**
+	 * @return : the hop distances and shortest path steps between all regions,
+	 * 			 computed the first time they are asked for after the last change
+	 */
+	public RegionDistances getDistances()
+	{
+		RegionDistances known = distances;
+		if(known != null)
+			return known;
+		return computeDistances();
+	}
+
+	private synchronized RegionDistances computeDistances()
+	{
+		if(distances == null) //another thread may have computed them meanwhile
+			distances = RegionDistances.compute(this);
+		return distances;
+	}
+
+	/**
+	 * @return : the links between regions in compressed form, with neighbor
+	 * 			 bitmasks, built the first time they are asked for after the last change
+	 */
+	public Adjacency getAdjacency()
+	{
+		Adjacency known = adjacency;
+		if(known != null)
+			return known;
+		return buildAdjacency();
+	}
+
+	private synchronized Adjacency buildAdjacency()
+	{
+		if(adjacency == null)
+			adjacency = Adjacency.build(this);
+		return adjacency;
+	}
+
+	/**
+	 * @param name : a player name as given by the engine
+	 * @return : the small integer code stored for that owner in the map state
+	 */
+	public int playerCode(String name)
+	{
+		String[] names = playerNames;
+		for(int i = 0; i < names.length; i++)
+			if(name.equals(names[i]))
+				return i;
+		return addPlayer(name);
+	}
+
+	/**
+	 * Names the player behind a fixed owner code, as given by the settings your_bot
+	 * and opponent_bot. Must be done before the name is used for anything else.
+	 * @param code : ME or OPPONENT
+	 * @param name : the player's name
+	 */
+	public synchronized void setPlayerName(int code, String name)
+	{
+		if(code != ME && code != OPPONENT)
+			throw new IllegalArgumentException("Only ME and OPPONENT can be named, not " + code);
+		String[] names = playerNames;
+		for(int i = 0; i < names.length; i++)
+			if(i != code && name.equals(names[i]))
+				throw new IllegalStateException("Player name " + name + " already has code " + i);
+		names = names.clone();
+		names[code] = name;
+		playerNames = names;
+	}
+
+	private synchronized int addPlayer(String name)
+	{
+		String[] names = playerNames;
+		for(int i = 0; i < names.length; i++) //another thread may have added it meanwhile
+			if(name.equals(names[i]))
+				return i;
+		if(names.length == Byte.MAX_VALUE)
+			throw new IllegalStateException("Too many player names: " + name);
+		names = Arrays.copyOf(names, names.length + 1);
+		names[names.length - 1] = name;
+		playerNames = names;
+		return names.length - 1;
+	}
+
+	/**
+	 * @param code : an owner code from the map state
+	 * @return : the player name it stands for
+	 */
+	public String playerName(int code)
+	{
+		return playerNames[code];
+	}
+
+	/**
+	 * @param id : a Region id number
+	 * @return : its dense index, or -1 if no such Region exists
+	 */
+	public int getRegionIndex(int id)
+	{
+		if(id < 0 || id >= regionIndex.length)
+			return -1;
+		return regionIndex[id];
+	}
+
+	/**
+	 * @param id : a SuperRegion id number
+	 * @return : its dense index, or -1 if no such SuperRegion exists
+	 */
+	public int getSuperRegionIndex(int id)
+	{
+		if(id < 0 || id >= superRegionIndex.length)
+			return -1;
+		return superRegionIndex[id];
+	}
+
+	public int getRegionCount() {
+		return regionCount;
+	}
+
+	public int getSuperRegionCount() {
+		return superRegionCount;
+	}
+
+	public int getRegionId(int region) {
+		return regionIds[region];
+	}
+
+	public int getSuperRegionId(int superRegion) {
+		return superRegionIds[superRegion];
+	}
+
+	/**
+	 * @return : the dense index of the SuperRegion the given region belongs to
+	 */
+	public int getSuperRegionOf(int region) {
+		return regionSuperRegion[region];
+	}
+
+	public int getArmiesReward(int superRegion) {
+		return superRegionRewards[superRegion];
+	}
+
+	public int getNeighborCount(int region) {
+		return neighborCount[region];
+	}
+
+	/**
+	 * @return : the dense index of the k-th neighbor of the given region
+	 */
+	public int getNeighbor(int region, int k) {
+		return neighbors[region][k];
+	}
+
+	public int getSubRegionCount(int superRegion) {
+		return subRegionCount[superRegion];
+	}
+
+	/**
+	 * @return : the dense index of the k-th Region of the given SuperRegion
+	 */
+	public int getSubRegion(int superRegion, int k) {
+		return subRegions[superRegion][k];
+	}
+
+	private static int[] emptyIndex(int size)
+	{
+		int[] index = new int[size];
+		Arrays.fill(index, -1);
+		return index;
+	}
+
+	/**
+	 * @return : the given table, or a grown copy of it, large enough to hold id
+	 */
+	private static int[] ensureIndex(int[] index, int id)
+	{
+		if(id < index.length)
+			return index;
+		int size = index.length;
+		while(size <= id)
+			size *= 2;
+		int[] grown = emptyIndex(size);
+		System.arraycopy(index, 0, grown, 0, index.length);
+		return grown;
+	}
+}
@@ -16,18 +16,23 @@
 package map;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
 
 
 public class Region {
 	
 	private int id;
-	private LinkedList<Region> neighbors;
 	private SuperRegion superRegion;
+	
+	/* A Region is a view over its Map's state arrays once it has been added to
+	 * a Map. Until then, armies and playerName hold its state.
+	 */
+	Map map;
+	int index = -1;
 	private int armies;
 	private String playerName;
 	
+	private ArrayList<Region> neighbors; //built from the topology on demand
+	private int neighborsVersion = -1;
 	
 	private int armiesWanted = 0;
 	
@@ -37,43 +42,58 @@ public class Region {
 	{
 		this.id = id;
 		this.superRegion = superRegion;
-		this.neighbors = new LinkedList<Region>();
 		this.playerName = "unknown";
 		this.armies = 0;
-		
-		superRegion.addSubRegion(this);
 	}
 	
 	public Region(int id, SuperRegion superRegion, String playerName, int armies)
 	{
 		this.id = id;
 		this.superRegion = superRegion;
-		this.neighbors = new LinkedList<Region>();
 		this.playerName = playerName;
 		this.armies = armies;
-		
-		superRegion.addSubRegion(this);
 	}
 	
-	//TODO Trace exception
+	/**
+	 * Creates the view of an existing region on a copied map
+	 */
+	Region(Map map, int index, SuperRegion superRegion)
+	{
+		this.id = map.topology.getRegionId(index);
+		this.superRegion = superRegion;
+		attach(map, index);
+	}
+	
+	void attach(Map map, int index)
+	{
+		this.map = map;
+		this.index = index;
+		this.playerName = null;
+	}
+	
 	public void addNeighbor(Region neighbor)
 	{
-		if(neighbor != null && !neighbors.contains(neighbor)) //added null check to avoid exception. may not solve issue...
+		if(neighbor == null)
+			return;
+		if(map == null || neighbor.map != map)
 		{
-			neighbors.add(neighbor);
-			neighbor.addNeighbor(this);
+			System.err.println("Neighbor cannot be added: regions are not on the same map.");
+			return;
 		}
+		map.topology.addNeighbor(index, neighbor.index);
+		map.version++;
 	}
 	
 	/**
 	 * @param region a Region object
-	 * @return True if this Region is a neighbor of given Region, false otherwise
+	 * @return True if this Region is a neighbor of given Region, false otherwise, in O(1)
+	 * 		   from the neighbor masks of the map's Adjacency
 	 */
 	public boolean isNeighbor(Region region)
 	{
-		if(neighbors.contains(region))
-			return true;
-		return false;
+		if(map == null || region == null || region.map == null)
+			return false;
+		return map.topology.getAdjacency().isNeighbor(index, region.index);
 	}
 
 	/**
@@ -82,23 +102,45 @@ public class Region {
 	 */
 	public boolean ownedByPlayer(String playerName)
 	{
-		if(playerName.equals(this.playerName))
+		if(playerName.equals(getPlayerName()))
 			return true;
 		return false;
 	}
 	
+	/**
+	 * @param owner An owner code, see MapTopology
+	 * @return True if this region is owned by the player with that code. Only regions on a Map have owner codes.
+	 */
+	public boolean ownedBy(int owner)
+	{
+		return map.owners[index] == owner;
+	}
+	
 	/**
 	 * @param armies Sets the number of armies that are on this Region
 	 */
 	public void setArmies(int armies) {
-		this.armies = armies;
+		if(map == null)
+			this.armies = armies;
+		else
+			map.setArmies(index, armies);
 	}
 	
 	/**
 	 * @param playerName Sets the Name of the player that this Region belongs to
 	 */
 	public void setPlayerName(String playerName) {
-		this.playerName = playerName;
+		if(map == null)
+			this.playerName = playerName;
+		else
+			map.setOwner(index, map.topology.playerCode(playerName));
+	}
+	
+	/**
+	 * @param owner Sets the owner code of this Region, see MapTopology. Only regions on a Map have owner codes.
+	 */
+	public void setOwner(int owner) {
+		map.setOwner(index, owner);
 	}
 	
 	/**
@@ -109,9 +151,31 @@ public class Region {
 	}
 	
 	/**
-	 * @return A list of this Region's neighboring Regions
+	 * @return The dense index of this Region in its Map's topology, or -1 if it is not on a Map
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * @return A list of this Region's neighboring Regions that are on the same Map
 	 */
-	public LinkedList<Region> getNeighbors() {
+	public ArrayList<Region> getNeighbors() {
+		if(map == null)
+			return new ArrayList<Region>();
+		if(neighborsVersion != map.version)
+		{
+			MapTopology topology = map.topology;
+			int count = topology.getNeighborCount(index);
+			neighbors = new ArrayList<Region>(count);
+			for(int i = 0; i < count; i++)
+			{
+				Region neighbor = map.getRegionByIndex(topology.getNeighbor(index, i));
+				if(neighbor != null)
+					neighbors.add(neighbor);
+			}
+			neighborsVersion = map.version;
+		}
 		return neighbors;
 	}
 	
@@ -126,14 +190,25 @@ public class Region {
 	 * @return The number of armies on this region
 	 */
 	public int getArmies() {
-		return armies;
+		if(map == null)
+			return armies;
+		return map.armies[index];
 	}
 	
 	/**
 	 * @return A string with the name of the player that owns this region
 	 */
 	public String getPlayerName() {
+		if(map == null)
 			return playerName;
+		return map.topology.playerName(map.owners[index]);
+	}
+	
+	/**
+	 * @return The owner code of the player that owns this region, see MapTopology. Only regions on a Map have owner codes.
+	 */
+	public int getOwner() {
+		return map.owners[index];
 	}
 	
 	/**
@@ -165,16 +240,8 @@ public class Region {
 	 */
 	public boolean isBorder()
 	{
-		for(Region adjacent : neighbors)
-		{
-			//Return true if any one adjacent region is owned by another player
-			if(!adjacent.playerName.equals(this.playerName))
-			{
-				return true;
-			}
-		}
-		
-		return false;
+		//the map keeps a flag for this, updated whenever an owner changes
+		return map != null && map.isBorder(index);
 	}
 	
 	/**
@@ -189,75 +256,33 @@ public class Region {
 		{
 			return this;
 		}
+		if(map == null)
+		{
+			return null;
+		}
 		
-		ArrayList<Region> frontier = new ArrayList<Region>();
-		/* Map id of child region to id of parent region to recover path
-		 * after searching for nearest border region
-		 */
-		HashMap<Integer, Integer> reverseTree = new HashMap<Integer, Integer>();
-		frontier.add(this);
-		reverseTree.put(this.id, this.id);
-		Region curr;
-		/* Current index in frontier so we don't remove elements, as that may cause
-		 * the search to go back to already-explored nodes
-		 */
-		int currNum = 0;
-		
-		/* Main loop to perform a Breadth-First Search for nearest border region
+		/* Every region next to an interior region has the same owner, so the
+		 * nearest border region of ours is also the nearest on the whole map, and
+		 * the shortest path to it only crosses our own interior regions
 		 */
-		while(currNum != frontier.size())
+		RegionDistances distances = map.topology.getDistances();
+		int owner = getOwner();
+		int nearest = -1;
+		int nearestDistance = Integer.MAX_VALUE;
+		for(Region region : map.regions)
 		{
-			curr = frontier.get(currNum);
-			for(Region adj : curr.neighbors)
+			int distance = distances.distance(index, region.index);
+			if(distance > 0 && distance < nearestDistance && region.ownedBy(owner) && region.isBorder())
 			{
-				/* If a border region is found, look for the step which
-				 * led to that region from this region
-				 */
-				if(adj.isBorder())
-				{
-					/* If we are on the current node, return the adjacent node
-					 * without backtracking as it will be the first step
-					 */
-					if(curr.equals(this))
-					{
-						return adj;
-					}
-					
-					int currID = curr.id;
-					
-					/* Backtrack through the trail of region IDs until we get
-					 * back to this region
-					 */
-					while(reverseTree.get(currID) != this.id)
-					{
-						currID = reverseTree.get(currID);
-					}
-					
-					/* Once at this region, find the neighbor with the ID given
-					 * by the next step backtracking
-					 */
-					for(Region step : this.neighbors)
-					{
-						if(step.id == currID)
-						{
-							return step;
-						}
-					}
-				}
-				else if(!frontier.contains(adj))
-				{
-					/* If the current region is not a border and not yet
-					 * in the frontier, 
-					 */
-					frontier.add(adj);
-					reverseTree.put(adj.id, curr.id);
-				}
+				nearest = region.index;
+				nearestDistance = distance;
 			}
-			
-			currNum++;
 		}
-		
-		return null;
+		if(nearest == -1)
+		{
+			return null;
+		}
+		return map.getRegionByIndex(distances.nextHop(index, nearest));
 	}
 	
 	/**
@@ -266,11 +291,19 @@ public class Region {
 	 * @return true iff an adjacent Region is owned by opponentName
 	 */
 	public boolean hasEnemy(String opponentName){
-		for(Region r: neighbors){
-			if(r.ownedByPlayer(opponentName))
-				return true;
-		}
-		return false;
+		if(map == null)
+			return false;
+		return hasEnemy(map.topology.playerCode(opponentName));
+	}
+	
+	/**
+	 * @param opponent The owner code of the opponent, normally MapTopology.OPPONENT
+	 * @return true iff an adjacent Region is owned by opponent
+	 */
+	public boolean hasEnemy(int opponent){
+		if(opponent == MapTopology.OPPONENT)
+			return map.isEnemyAdjacent(index); //kept up to date by the map
+		return map.hasNeighborOwnedBy(index, opponent);
 	}
 	
 }
@@ -0,0 +1,116 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package map;
+
+import java.util.Arrays;
+
+/**
+ * Hop distances and first steps of shortest paths between every pair of regions,
+ * computed with one breadth-first search per region. Get it from
+ * MapTopology.getDistances; it never changes once built, so any thread can use it.
+ *
+ * The tables are flat n*n arrays indexed by from * n + to. Distances are kept as
+ * shorts and first steps as bytes, holding the position of the step in the
+ * from region's neighbor list.
+ */
+public final class RegionDistances {
+
+	private final MapTopology topology;
+	private final int regionCount;
+	private final short[] distance; //-1 where there is no path
+	private final byte[] firstStep; //neighbor position of the first step, -1 where there is none
+
+	private RegionDistances(MapTopology topology, int regionCount, short[] distance, byte[] firstStep)
+	{
+		this.topology = topology;
+		this.regionCount = regionCount;
+		this.distance = distance;
+		this.firstStep = firstStep;
+	}
+
+	/**
+	 * Runs a breadth-first search from every region. Where several shortest paths
+	 * exist, the one whose first step comes first in the neighbor list is kept.
+	 */
+	static RegionDistances compute(MapTopology topology)
+	{
+		int n = topology.getRegionCount();
+		if(n > Short.MAX_VALUE)
+			throw new IllegalStateException("Too many regions for a distance table: " + n);
+		short[] distance = new short[n * n];
+		byte[] firstStep = new byte[n * n];
+		Arrays.fill(distance, (short) -1);
+		Arrays.fill(firstStep, (byte) -1);
+		int[] queue = new int[n];
+		for(int from = 0; from < n; from++)
+		{
+			if(topology.getNeighborCount(from) > Byte.MAX_VALUE)
+				throw new IllegalStateException("Too many neighbors for a next-hop table: " + topology.getRegionId(from));
+			int base = from * n;
+			distance[base + from] = 0;
+			int head = 0, tail = 0;
+			queue[tail++] = from;
+			while(head < tail)
+			{
+				int region = queue[head++];
+				short next = (short) (distance[base + region] + 1);
+				int count = topology.getNeighborCount(region);
+				for(int k = 0; k < count; k++)
+				{
+					int neighbor = topology.getNeighbor(region, k);
+					if(distance[base + neighbor] != -1)
+						continue;
+					distance[base + neighbor] = next;
+					firstStep[base + neighbor] = region == from ? (byte) k : firstStep[base + region];
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return new RegionDistances(topology, n, distance, firstStep);
+	}
+
+	/**
+	 * @param from : dense index of a region
+	 * @param to : dense index of a region
+	 * @return : the fewest links between them, or -1 if they are not connected
+	 */
+	public int distance(int from, int to)
+	{
+		return distance[from * regionCount + to];
+	}
+
+	/**
+	 * @param from : dense index of a region
+	 * @param to : dense index of a region
+	 * @return : the dense index of the neighbor of from that a shortest path to
+	 * 			 to goes through first, or -1 if from is to or they are not connected
+	 */
+	public int nextHop(int from, int to)
+	{
+		int step = firstStep[from * regionCount + to];
+		if(step == -1)
+			return -1;
+		return topology.getNeighbor(from, step);
+	}
+
+	/**
+	 * @return : the number of regions the tables cover
+	 */
+	public int getRegionCount()
+	{
+		return regionCount;
+	}
+}
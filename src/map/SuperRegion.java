@@ -14,25 +14,41 @@
  */
 
 package map;
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 public class SuperRegion {
 	
 	private int id;
 	private int armiesReward;
-	private LinkedList<Region> subRegions;
+	
+	/* A SuperRegion is a view over its Map's topology once it has been added to a Map
+	 */
+	Map map;
+	int index = -1;
+	
+	private ArrayList<Region> subRegions; //built from the topology on demand
+	private int subRegionsVersion = -1;
 	
 	public SuperRegion(int id, int armiesReward)
 	{
 		this.id = id;
 		this.armiesReward = armiesReward;
-		subRegions = new LinkedList<Region>();
 	}
 	
-	public void addSubRegion(Region subRegion)
+	/**
+	 * Creates the view of an existing SuperRegion on a copied map
+	 */
+	SuperRegion(Map map, int index)
+	{
+		this.id = map.topology.getSuperRegionId(index);
+		this.armiesReward = map.topology.getArmiesReward(index);
+		attach(map, index);
+	}
+	
+	void attach(Map map, int index)
 	{
-		if(!subRegions.contains(subRegion))
-			subRegions.add(subRegion);
+		this.map = map;
+		this.index = index;
 	}
 	
 	/**
@@ -40,13 +56,27 @@ public class SuperRegion {
 	 */
 	public String ownedByPlayer()
 	{
-		String playerName = subRegions.getFirst().getPlayerName();
+		int owner = getOwner();
+		if(owner == -1)
+			return null;
+		return map.topology.playerName(owner);
+	}
+	
+	/**
+	 * @return The owner code of the player that fully owns this SuperRegion, or -1 if nobody does
+	 */
+	public int getOwner()
+	{
+		ArrayList<Region> subRegions = getSubRegions();
+		if(subRegions.isEmpty())
+			return -1;
+		int owner = subRegions.get(0).getOwner();
 		for(Region region : subRegions)
 		{
-			if (!playerName.equals(region.getPlayerName()))
-				return null;
+			if (owner != region.getOwner())
+				return -1;
 		}
-		return playerName;
+		return owner;
 	}
 	
 	/**
@@ -56,6 +86,13 @@ public class SuperRegion {
 		return id;
 	}
 	
+	/**
+	 * @return The dense index of this SuperRegion in its Map's topology, or -1 if it is not on a Map
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
 	/**
 	 * @return The number of armies a Player is rewarded when he fully owns this SuperRegion
 	 */
@@ -64,9 +101,24 @@ public class SuperRegion {
 	}
 	
 	/**
-	 * @return A list with the Regions that are part of this SuperRegion
+	 * @return A list with the Regions that are part of this SuperRegion and on the same Map
 	 */
-	public LinkedList<Region> getSubRegions() {
+	public ArrayList<Region> getSubRegions() {
+		if(map == null)
+			return new ArrayList<Region>();
+		if(subRegionsVersion != map.version)
+		{
+			MapTopology topology = map.topology;
+			int count = topology.getSubRegionCount(index);
+			subRegions = new ArrayList<Region>(count);
+			for(int i = 0; i < count; i++)
+			{
+				Region region = map.getRegionByIndex(topology.getSubRegion(index, i));
+				if(region != null)
+					subRegions.add(region);
+			}
+			subRegionsVersion = map.version;
+		}
 		return subRegions;
 	}
 }
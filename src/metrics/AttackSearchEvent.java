@@ -0,0 +1,54 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the attack search from one border region, on the
+ * search pool thread that ran it
+ */
+@Name("warlight.AttackSearch")
+@Label("Attack Search")
+@Category({"Warlight", "Search"})
+@Description("Simulated annealing over the attacks from one region")
+@StackTrace(false)
+public final class AttackSearchEvent extends jdk.jfr.Event {
+
+	@Label("Round")
+	public int round;
+
+	@Label("Region")
+	public int regionId;
+
+	@Label("Targets")
+	@Description("Regions that could be attacked")
+	public int targets;
+
+	@Label("Iterations")
+	public long iterations;
+
+	@Label("Attacks")
+	@Description("Attacks decided on")
+	public int attacks;
+
+	@Label("Armies Sent")
+	public int armiesSent;
+}
@@ -0,0 +1,49 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one call to a Bot method
+ */
+@Name("warlight.BotCall")
+@Label("Bot Call")
+@Category({"Warlight", "Protocol"})
+@Description("A move request handed to the bot")
+@StackTrace(false)
+public final class BotCallEvent extends jdk.jfr.Event {
+
+	@Label("Method")
+	public String method;
+
+	@Label("Round")
+	public int round;
+
+	@Label("Timebank")
+	@Description("Time left in the timebank when the request came")
+	@Timespan(Timespan.MILLISECONDS)
+	public long timeOut;
+
+	@Label("Moves")
+	@Description("Moves returned, 1 for a starting region")
+	public int moves;
+}
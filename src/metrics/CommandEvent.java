@@ -0,0 +1,40 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one engine command, from reading its first word to
+ * answering it. Move requests contain the BotCallEvent of the bot answering.
+ */
+@Name("warlight.Command")
+@Label("Command")
+@Category({"Warlight", "Protocol"})
+@Description("One command from the engine, read and acted on")
+@StackTrace(false)
+public final class CommandEvent extends jdk.jfr.Event {
+
+	@Label("Command")
+	public String command;
+
+	@Label("Round")
+	public int round;
+}
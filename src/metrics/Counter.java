@@ -0,0 +1,51 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that any number of threads may add to without contending, for events
+ * as frequent as Utility calls. Get one from Metrics.counter.
+ */
+public final class Counter {
+
+	private final LongAdder count = new LongAdder();
+
+	Counter()
+	{
+	}
+
+	public void increment()
+	{
+		count.increment();
+	}
+
+	public void add(long amount)
+	{
+		count.add(amount);
+	}
+
+	public long get()
+	{
+		return count.sum();
+	}
+
+	void reset()
+	{
+		count.reset();
+	}
+}
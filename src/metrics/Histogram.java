@@ -0,0 +1,132 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts non-negative values in buckets of logarithmic size, as HdrHistogram
+ * does: values below 32 each have their own bucket, and above that every power
+ * of two is split into 16 buckets, so any value is known to within 1/16. That
+ * covers the whole range of a long in 1024 buckets with no configuration.
+ * Any number of threads may record at once. Get one from Metrics.histogram.
+ */
+public final class Histogram {
+
+	private static final int SUB_BITS = 4;
+	private static final int SUB = 1 << SUB_BITS; //buckets per power of two
+	private static final int BUCKETS = 64 * SUB;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	Histogram()
+	{
+	}
+
+	/**
+	 * @param value : the value to count, negative values counting as 0
+	 */
+	public void record(long value)
+	{
+		value = Math.max(0, value);
+		counts.incrementAndGet(bucket(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		long low = min.get();
+		while(value < low && !min.compareAndSet(low, value))
+			low = min.get();
+		long high = max.get();
+		while(value > high && !max.compareAndSet(high, value))
+			high = max.get();
+	}
+
+	static int bucket(long value)
+	{
+		if(value < 2 * SUB)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return shift * SUB + (int) (value >>> shift);
+	}
+
+	/**
+	 * @return : the largest value that falls in the bucket
+	 */
+	static long highestInBucket(int bucket)
+	{
+		if(bucket < 2 * SUB)
+			return bucket;
+		int shift = bucket / SUB - 1;
+		long lowest = (long) (bucket % SUB + SUB) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	public long getCount()
+	{
+		return count.get();
+	}
+
+	public long getMin()
+	{
+		return count.get() == 0 ? 0 : min.get();
+	}
+
+	public long getMax()
+	{
+		return count.get() == 0 ? 0 : max.get();
+	}
+
+	public double getMean()
+	{
+		long n = count.get();
+		return n == 0 ? 0 : (double) sum.get() / n;
+	}
+
+	/**
+	 * @param percentile : from 0 to 100
+	 * @return : a value at least as large as that share of the values recorded, and
+	 * 			 within 1/16 of the true percentile
+	 */
+	public long getPercentile(double percentile)
+	{
+		long n = count.get();
+		if(n == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+		long seen = 0;
+		for(int b = 0; b < BUCKETS; b++)
+		{
+			seen += counts.get(b);
+			if(seen >= rank)
+				return Math.min(highestInBucket(b), getMax());
+		}
+		return getMax();
+	}
+
+	void reset()
+	{
+		for(int b = 0; b < BUCKETS; b++)
+			counts.set(b, 0);
+		count.set(0);
+		sum.set(0);
+		min.set(Long.MAX_VALUE);
+		max.set(Long.MIN_VALUE);
+	}
+}
@@ -0,0 +1,158 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package metrics;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The bot's counters and histograms, by name.
+ *
+ * Metrics are off unless the JVM is started with -Dbot.metrics=true, or with
+ * -Dbot.debug=true, which also has the bot print what it allocated each round
+ * to System.err. ENABLED is a constant, so the JIT removes every
+ * "if(Metrics.ENABLED)" block when they are off and instrumented code costs
+ * nothing. Call sites look their counters and
+ * histograms up once, into static fields, and record through those.
+ *
+ * summary() gives everything recorded so far as JSON. dump() writes that to the
+ * file named by -Dbot.metrics.file, or to System.err, since System.out belongs
+ * to the engine; BotParser calls it when the game ends.
+ */
+public final class Metrics {
+
+	public static final boolean DEBUG = Boolean.getBoolean("bot.debug");
+	public static final boolean ENABLED = DEBUG || Boolean.getBoolean("bot.metrics");
+
+	private static final ConcurrentSkipListMap<String, Counter> counters = new ConcurrentSkipListMap<String, Counter>();
+	private static final ConcurrentSkipListMap<String, Histogram> histograms = new ConcurrentSkipListMap<String, Histogram>();
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+	private Metrics()
+	{
+	}
+
+	/**
+	 * @return the counter with the given name, created the first time it is asked for
+	 */
+	public static Counter counter(String name)
+	{
+		Counter counter = counters.get(name);
+		if(counter == null)
+		{
+			counters.putIfAbsent(name, new Counter());
+			counter = counters.get(name);
+		}
+		return counter;
+	}
+
+	/**
+	 * @return the histogram with the given name, created the first time it is asked for
+	 */
+	public static Histogram histogram(String name)
+	{
+		Histogram histogram = histograms.get(name);
+		if(histogram == null)
+		{
+			histograms.putIfAbsent(name, new Histogram());
+			histogram = histograms.get(name);
+		}
+		return histogram;
+	}
+
+	/**
+	 * @return the bytes the calling thread has allocated so far, or 0 if metrics
+	 * 		   are off or the JVM cannot tell
+	 */
+	public static long allocatedBytes()
+	{
+		if(ENABLED && threads instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+
+	/**
+	 * Sets every counter and histogram back to zero
+	 */
+	public static void reset()
+	{
+		for(Counter counter : counters.values())
+			counter.reset();
+		for(Histogram histogram : histograms.values())
+			histogram.reset();
+	}
+
+	/**
+	 * @return everything recorded so far as a JSON object, names in order:
+	 * 		   {"counters": {name: count}, "histograms": {name: {"count", "min",
+	 * 		   "mean", "p50", "p90", "p99", "max"}}}
+	 */
+	public static String summary()
+	{
+		StringBuilder out = new StringBuilder("{\"counters\": {");
+		String separator = "";
+		for(Map.Entry<String, Counter> entry : counters.entrySet())
+		{
+			out.append(separator).append('"').append(entry.getKey()).append("\": ").append(entry.getValue().get());
+			separator = ", ";
+		}
+		out.append("}, \"histograms\": {");
+		separator = "";
+		for(Map.Entry<String, Histogram> entry : histograms.entrySet())
+		{
+			Histogram histogram = entry.getValue();
+			out.append(separator).append('"').append(entry.getKey()).append("\": ");
+			out.append(String.format(Locale.ROOT, "{\"count\": %d, \"min\": %d, \"mean\": %.1f, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"max\": %d}",
+					histogram.getCount(), histogram.getMin(), histogram.getMean(), histogram.getPercentile(50),
+					histogram.getPercentile(90), histogram.getPercentile(99), histogram.getMax()));
+			separator = ", ";
+		}
+		return out.append("}}").toString();
+	}
+
+	/**
+	 * Writes the summary to the file named by -Dbot.metrics.file, or to System.err
+	 */
+	public static void dump()
+	{
+		String file = System.getProperty("bot.metrics.file");
+		if(file == null)
+		{
+			System.err.println(summary());
+			return;
+		}
+		try {
+			Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			try {
+				out.write(summary());
+				out.write('\n');
+			}
+			finally {
+				out.close();
+			}
+		}
+		catch(IOException e) {
+			System.err.println("Unable to write metrics to " + file + ": " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one evaluation of a deployment, which plans the
+ * attacks that would follow it and scores them
+ */
+@Name("warlight.UtilityEvaluation")
+@Label("Utility Evaluation")
+@Category({"Warlight", "Search"})
+@Description("The expected utility of the attacks a deployment leads to")
+@StackTrace(false)
+public final class UtilityEvaluationEvent extends jdk.jfr.Event {
+
+	@Label("Round")
+	public int round;
+
+	@Label("Iterations")
+	@Description("Annealing steps over all the regions attacking")
+	public long iterations;
+
+	@Label("Attacks")
+	@Description("Attacks planned")
+	public int attacks;
+
+	@Label("Utility")
+	public double utility;
+}
@@ -74,4 +74,13 @@ public class AttackTransferMove extends Move {
 			return getPlayerName() + " illegal_move " + getIllegalMove();
 	}
 
+	@Override
+	public void appendTo(MoveWriter out) {
+		if(getIllegalMove().equals(""))
+			out.append(getPlayerName()).append(" attack/transfer ").append(fromRegion.getId())
+				.append(' ').append(toRegion.getId()).append(' ').append(armies);
+		else
+			super.appendTo(out);
+	}
+
 }
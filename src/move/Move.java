@@ -48,4 +48,12 @@ public class Move {
 		return illegalMove;
 	}
 
+	/**
+	 * Writes this Move the way getString would return it. The base Move can only be
+	 * written as illegal, the subclasses write their legal form themselves.
+	 */
+	public void appendTo(MoveWriter out) {
+		out.append(playerName).append(" illegal_move ").append(illegalMove);
+	}
+
 }
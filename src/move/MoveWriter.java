@@ -0,0 +1,113 @@
+/**
+ * Warlight AI Game Bot
+ *
+ * This is an agent made as a submission to the Warlight AI Challenge II by
+ * Joshua Dunster, Phillip Little, and Jacob Murphy as part of an undergraduate
+ * Introduction to AI course at Clemson University. It was developed using the
+ * provided Java program shell created by Jim van Eeden to communicate with the
+ * competition program, with our team adding implementations for the function shells
+ * provided by that version. The MIT license is included as his shell was released
+ * under that license.
+ *
+ * @author Joshua Dunster, Phillip Little, Jacob Murphy *
+ * @License MIT License (http://opensource.org/Licenses/MIT)
+ */
+
+package move;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Collects one response to the engine as bytes and writes it out in a single
+ * flush. Moves append themselves with appendTo, so no Strings are built for them.
+ * The buffer is kept between responses, so after the first few rounds writing a
+ * response allocates nothing.
+ */
+public class MoveWriter {
+
+	private final OutputStream out;
+	private byte[] buffer = new byte[1024];
+	private int size;
+
+	public MoveWriter(OutputStream out)
+	{
+		this.out = out;
+	}
+
+	/**
+	 * Adds a move to the current response, followed by the separating comma
+	 */
+	public void add(Move move)
+	{
+		move.appendTo(this);
+		append(',');
+	}
+
+	/**
+	 * Ends the current response, saying "No moves" if none were added, and sends it
+	 */
+	public void endResponse()
+	{
+		if(size == 0)
+			append("No moves");
+		append('\n');
+		try {
+			out.write(buffer, 0, size);
+			out.flush();
+		}
+		catch(IOException e) {
+			System.err.println("Unable to write response " + e.getMessage());
+		}
+		size = 0;
+	}
+
+	public MoveWriter append(char c)
+	{
+		ensure(1);
+		buffer[size++] = (byte) c;
+		return this;
+	}
+
+	/**
+	 * Appends the characters of s, which must be ASCII as everything in the protocol is
+	 */
+	public MoveWriter append(String s)
+	{
+		int length = s.length();
+		ensure(length);
+		for(int i = 0; i < length; i++)
+			buffer[size + i] = (byte) s.charAt(i);
+		size += length;
+		return this;
+	}
+
+	public MoveWriter append(int value)
+	{
+		if(value < 0)
+		{
+			if(value == Integer.MIN_VALUE)
+				return append(Integer.toString(value));
+			append('-');
+			value = -value;
+		}
+		int digits = 1;
+		for(int rest = value; rest >= 10; rest /= 10)
+			digits++;
+		ensure(digits);
+		for(int i = size + digits - 1; i >= size; i--)
+		{
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		size += digits;
+		return this;
+	}
+
+	private void ensure(int extra)
+	{
+		if(size + extra > buffer.length)
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+	}
+}
@@ -64,5 +64,13 @@ public class PlaceArmiesMove extends Move {
 			return getPlayerName() + " illegal_move " + getIllegalMove();
 				
 	}
+
+	@Override
+	public void appendTo(MoveWriter out) {
+		if(getIllegalMove().equals(""))
+			out.append(getPlayerName()).append(" place_armies ").append(region.getId()).append(' ').append(armies);
+		else
+			super.appendTo(out);
+	}
 	
 }